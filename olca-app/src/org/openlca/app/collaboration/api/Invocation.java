@@ -8,7 +8,6 @@ import org.openlca.app.collaboration.util.WebRequests.Type;
 import org.openlca.app.collaboration.util.WebRequests.WebRequestException;
 import org.openlca.util.Strings;
 
-import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.sun.jersey.api.client.ClientResponse.Status;
 
@@ -46,8 +45,11 @@ abstract class Invocation<E, T> {
 		}
 		try {
 			var response = WebRequests.call(type, url, sessionId, data());
-			if (response.getStatus() == Status.NO_CONTENT.getStatusCode())
+			if (response.getStatus() == Status.NO_CONTENT.getStatusCode()) {
+				// release the connection so that it can be reused
+				response.close();
 				return process(null);
+			}
 			if (entityClass != null && InputStream.class.isAssignableFrom(entityClass))
 				return process((E) response.getEntityInputStream());
 			var string = response.getEntity(String.class);
@@ -56,8 +58,8 @@ abstract class Invocation<E, T> {
 			if (entityType == null && (entityClass == null || entityClass == String.class))
 				return process((E) string);
 			if (entityType == null)
-				return process(new Gson().fromJson(string, entityClass));
-			return process(new Gson().fromJson(string, entityType.getType()));
+				return process(WebRequests.gson().fromJson(string, entityClass));
+			return process(WebRequests.gson().fromJson(string, entityType.getType()));
 		} catch (WebRequestException e) {
 			if (e.getErrorCode() == Status.NOT_FOUND.getStatusCode())
 				return null;
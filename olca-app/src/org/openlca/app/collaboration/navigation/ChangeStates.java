@@ -0,0 +1,90 @@
+package org.openlca.app.collaboration.navigation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openlca.app.db.Repository;
+import org.openlca.git.util.Repositories;
+import org.openlca.jsonld.LibraryLink;
+
+/**
+ * Memoizes the change states of the elements of a {@link NavRoot} tree so that
+ * the labels of the navigation tree do not need to traverse the sub-trees of
+ * their elements on every paint. An instance belongs to a {@link NavRoot}. It
+ * is cleared when the tree of that root is updated and when it is accessed
+ * for another repository than the one it was filled for.
+ * <p>
+ * The elements of the tree are records with structural equality, so the
+ * states are stored by identity.
+ */
+class ChangeStates {
+
+	private final Map<NavElement, Boolean> changed = new IdentityHashMap<>();
+	private final Map<NavElement, Boolean> deleted = new IdentityHashMap<>();
+	private List<LibraryLink> libraries;
+	private Boolean librariesChanged;
+	private Repository repo;
+
+	Boolean changed(NavElement elem) {
+		check();
+		return changed.get(elem);
+	}
+
+	boolean changed(NavElement elem, boolean value) {
+		changed.put(elem, value);
+		return value;
+	}
+
+	Boolean deleted(NavElement elem) {
+		check();
+		return deleted.get(elem);
+	}
+
+	boolean deleted(NavElement elem, boolean value) {
+		deleted.put(elem, value);
+		return value;
+	}
+
+	Boolean librariesChanged() {
+		check();
+		return librariesChanged;
+	}
+
+	boolean librariesChanged(boolean value) {
+		librariesChanged = value;
+		return value;
+	}
+
+	/**
+	 * Returns the libraries of the last commit of the repository.
+	 */
+	List<LibraryLink> libraries() {
+		check();
+		if (libraries == null) {
+			var info = Repositories.infoOf(Repository.get().git);
+			libraries = info == null
+					? new ArrayList<>()
+					: info.libraries();
+		}
+		return libraries;
+	}
+
+	void clear() {
+		changed.clear();
+		deleted.clear();
+		libraries = null;
+		librariesChanged = null;
+		repo = null;
+	}
+
+	private void check() {
+		var current = Repository.get();
+		if (repo == current)
+			return;
+		clear();
+		repo = current;
+	}
+
+}
@@ -18,12 +18,17 @@ import static org.openlca.core.model.ModelType.SOCIAL_INDICATOR;
 import static org.openlca.core.model.ModelType.SOURCE;
 import static org.openlca.core.model.ModelType.UNIT_GROUP;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.openlca.app.App;
@@ -52,13 +57,35 @@ public class NavRoot {
 			FLOW_PROPERTY, UNIT_GROUP, CURRENCY, ACTOR, SOURCE, LOCATION
 	};
 
-	private static NavRoot INSTANCE = new NavRoot(null);
+	/**
+	 * The time window in milliseconds in which refresh requests are collected
+	 * into a single update of the repository state.
+	 */
+	private static final int REFRESH_DELAY = 250;
+
+	private static final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(r -> {
+				var thread = new Thread(r, "navigator-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/**
+	 * The pending refresh requests; guarded by the class lock.
+	 */
+	private static boolean refreshScheduled;
+	private static boolean refreshAll;
+	private static final EnumSet<ModelType> refreshTypes = EnumSet.noneOf(ModelType.class);
+	private static Runnable refreshCallback;
+
+	private static volatile NavRoot INSTANCE = new NavRoot(null);
 	private Boolean changes;
 	private final IDatabase database;
 	private final Map<Long, Category> categoryMap = new HashMap<>();
 	private final EnumMap<ModelType, Map<Long, List<Category>>> categories = new EnumMap<>(ModelType.class);
 	private final EnumMap<ModelType, Map<Long, List<RootDescriptor>>> descriptors = new EnumMap<>(ModelType.class);
 	private final NavElement root = new NavElement(ElementType.DATABASE, null);
+	private final ChangeStates states = new ChangeStates();
 
 	private NavRoot(IDatabase database) {
 		this.database = database;
@@ -76,21 +103,107 @@ public class NavRoot {
 		INSTANCE.build();
 	}
 
+	/**
+	 * Runs the given navigator refresh and schedules a full update of the
+	 * repository state. See {@link #refresh(Runnable, ModelType, Runnable)}.
+	 */
 	public static void refresh(Runnable navigatorRefresh) {
+		refresh(navigatorRefresh, null, navigatorRefresh);
+	}
+
+	/**
+	 * Runs the given navigator refresh and schedules an update of the
+	 * repository state of the elements of the given model type; if the type
+	 * is null, the complete state is updated. The requests that arrive within
+	 * a short time window are collected and executed together in a background
+	 * thread. After this, the given callback is executed once in the UI thread
+	 * (for the last request of the window) so that the labels of the
+	 * navigator can be updated.
+	 */
+	public static void refresh(
+			Runnable navigatorRefresh, ModelType type, Runnable callback) {
+		INSTANCE.states.clear();
 		navigatorRefresh.run();
-		new Thread(() -> {
+		if (!Repository.isConnected()) {
+			// there is no repository state to update; we only make sure that
+			// the root belongs to the current database
+			if (INSTANCE.database != Database.get()) {
+				init();
+			}
+			INSTANCE.changes = null;
+			return;
+		}
+		synchronized (NavRoot.class) {
+			if (type == null) {
+				refreshAll = true;
+			} else {
+				refreshTypes.add(type);
+			}
+			refreshCallback = callback;
+			if (refreshScheduled)
+				return;
+			refreshScheduled = true;
+		}
+		scheduler.schedule(
+				NavRoot::runScheduledRefresh, REFRESH_DELAY, TimeUnit.MILLISECONDS);
+	}
+
+	private static void runScheduledRefresh() {
+		boolean all;
+		EnumSet<ModelType> types;
+		Runnable callback;
+		synchronized (NavRoot.class) {
+			all = refreshAll;
+			types = EnumSet.copyOf(refreshTypes);
+			callback = refreshCallback;
+			refreshAll = false;
+			refreshTypes.clear();
+			refreshCallback = null;
+			refreshScheduled = false;
+		}
+
+		var current = INSTANCE;
+		var database = Database.get();
+		if (all || current.database != database) {
 			init();
 			App.runInUI("Refreshing navigator", () -> {
-				navigatorRefresh.run();
+				if (callback != null) {
+					callback.run();
+				}
 				INSTANCE.changes = null;
 			});
-		}).start();
+			return;
+		}
+
+		// only reload the categories and descriptors of the changed types
+		var updates = new ArrayList<TypeContent>();
+		for (var type : types) {
+			updates.add(current.load(type));
+		}
+		App.runInUI("Refreshing navigator", () -> {
+			if (INSTANCE == current) {
+				for (var update : updates) {
+					current.apply(update);
+				}
+				// the database, group, and model type elements are kept, so
+				// their memoized states from the old tree need to be dropped
+				current.states.clear();
+			}
+			if (callback != null) {
+				callback.run();
+			}
+			INSTANCE.changes = null;
+		});
 	}
 
 	static NavElement get(INavigationElement<?> elem) {
 		return new NavFinder(NavRoot.get().categoryMap).find(NavRoot.get().root, elem);
 	}
 
+	ChangeStates states() {
+		return states;
+	}
+
 	public boolean hasChanges() {
 		if (changes == null) {
 			changes = RepositoryLabel.hasChanged(Navigator.findElement(Database.getActiveConfiguration()));
@@ -170,10 +283,82 @@ public class NavRoot {
 		}
 	}
 
+	/**
+	 * Loads the categories and descriptors of the given model type. This can
+	 * be called from a background thread; the loaded content is then applied
+	 * in the UI thread.
+	 */
+	private TypeContent load(ModelType type) {
+		var content = new TypeContent(type, new ArrayList<>(),
+				new HashMap<>(), new HashMap<>());
+		if (database == null)
+			return content;
+		var queue = new ArrayDeque<>(new CategoryDao(database).getRootCategories(type));
+		while (!queue.isEmpty()) {
+			var category = queue.poll();
+			var parentId = category.category != null ? category.category.id : null;
+			content.categories().computeIfAbsent(parentId, id -> new ArrayList<>())
+					.add(category);
+			content.all().add(category);
+			queue.addAll(category.childCategories);
+		}
+		if (type == PARAMETER) {
+			for (var descriptor : new ParameterDao(database).getGlobalDescriptors()) {
+				content.descriptors().computeIfAbsent(descriptor.category, id -> new ArrayList<>())
+						.add(descriptor);
+			}
+		} else if (type.getModelClass() != null) {
+			for (var descriptor : database.getDescriptors(type.getModelClass())) {
+				content.descriptors().computeIfAbsent(descriptor.category, id -> new ArrayList<>())
+						.add(descriptor);
+			}
+		}
+		return content;
+	}
+
+	/**
+	 * Replaces the categories and descriptors of a model type and rebuilds
+	 * the respective model type element; the rest of the tree is not changed.
+	 */
+	private void apply(TypeContent content) {
+		var type = content.type();
+		categoryMap.values().removeIf(c -> c.modelType == type);
+		for (var category : content.all()) {
+			categoryMap.put(category.id, category);
+		}
+		categories.put(type, content.categories());
+		descriptors.put(type, content.descriptors());
+		var elem = findModelType(root, type);
+		if (elem == null)
+			return;
+		elem.children().clear();
+		elem.children().addAll(buildChildren(type, null));
+	}
+
+	private NavElement findModelType(NavElement parent, ModelType type) {
+		for (var child : parent.children()) {
+			if (child.is(ElementType.MODEL_TYPE) && child.content() == type)
+				return child;
+			if (child.is(ElementType.GROUP)) {
+				var elem = findModelType(child, type);
+				if (elem != null)
+					return elem;
+			}
+		}
+		return null;
+	}
+
 	private <T> void put(EnumMap<ModelType, Map<Long, List<T>>> map, ModelType type, Long parentId, T value) {
 		map.computeIfAbsent(type, t -> new HashMap<>())
 				.computeIfAbsent(parentId, id -> new ArrayList<>())
 				.add(value);
 	}
 
+	private record TypeContent(
+			ModelType type,
+			List<Category> all,
+			Map<Long, List<Category>> categories,
+			Map<Long, List<RootDescriptor>> descriptors) {
+	}
+
 }
@@ -1,6 +1,5 @@
 package org.openlca.app.collaboration.navigation;
 
-import java.util.ArrayList;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -22,7 +21,6 @@ import org.openlca.core.model.descriptors.RootDescriptor;
 import org.openlca.git.GitIndex;
 import org.openlca.git.util.Constants;
 import org.openlca.git.util.GitUtil;
-import org.openlca.git.util.Repositories;
 import org.openlca.jsonld.LibraryLink;
 import org.openlca.util.Strings;
 
@@ -93,6 +91,14 @@ public class RepositoryLabel {
 	public static boolean hasChanged(NavElement elem) {
 		if (Database.get() == null || !Repository.isConnected() || elem == null || elem.isFromLibrary())
 			return false;
+		var states = NavRoot.get().states();
+		var state = states.changed(elem);
+		if (state != null)
+			return state;
+		return states.changed(elem, computeChanged(elem));
+	}
+
+	private static boolean computeChanged(NavElement elem) {
 		if (elem.is(ElementType.MODEL)) {
 			if (isNew(elem))
 				return false;
@@ -124,6 +130,14 @@ public class RepositoryLabel {
 	private static boolean containsDeleted(NavElement elem) {
 		if (elem.is(ElementType.MODEL))
 			return false;
+		var states = NavRoot.get().states();
+		var state = states.deleted(elem);
+		if (state != null)
+			return state;
+		return states.deleted(elem, computeContainsDeleted(elem));
+	}
+
+	private static boolean computeContainsDeleted(NavElement elem) {
 		for (var child : elem.children())
 			if (containsDeleted(child))
 				return true;
@@ -142,23 +156,25 @@ public class RepositoryLabel {
 	}
 
 	private static boolean librariesChanged() {
-		var info = Repositories.infoOf(Repository.get().git);
-		var libsBefore = info == null ? new ArrayList<LibraryLink>() : info.libraries();
+		var states = NavRoot.get().states();
+		var state = states.librariesChanged();
+		if (state != null)
+			return state;
+		var libsBefore = states.libraries();
 		var libsNow = LibraryLink.of(Database.get().getLibraries());
 		if (libsBefore.size() != libsNow.size())
-			return true;
+			return states.librariesChanged(true);
 		for (var lib : libsBefore)
 			if (!libsNow.contains(lib))
-				return true;
+				return states.librariesChanged(true);
 		for (var lib : libsNow)
 			if (!libsBefore.contains(lib))
-				return true;
-		return false;
+				return states.librariesChanged(true);
+		return states.librariesChanged(false);
 	}
 
 	private static boolean isNewLibrary(String lib) {
-		var info = Repositories.infoOf(Repository.get().git);
-		var libsBefore = info == null ? new ArrayList<LibraryLink>() : info.libraries();
+		var libsBefore = NavRoot.get().states().libraries();
 		return !libsBefore.contains(new LibraryLink(lib, null));
 	}
 
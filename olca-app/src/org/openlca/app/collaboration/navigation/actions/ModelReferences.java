@@ -1,40 +1,190 @@
 package org.openlca.app.collaboration.navigation.actions;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.openlca.app.db.DatabaseDir;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.NativeSql;
 import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.git.util.TypedRefIdMap;
 import org.openlca.git.util.TypedRefId;
 import org.openlca.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * The reference graph of the models of a database. The models are stored as
+ * keys of primitive longs that contain the model type in the upper 8 bits and
+ * the ID in the lower 56 bits (see {@link #keyOf(ModelType, long)}), so that
+ * the reference graph of a large database can be held in primitive hash maps
+ * and sets instead of nested maps of boxed values.
+ * <p>
+ * The graph is built once, stored in the file storage of the database when
+ * the database is closed, and then updated incrementally: the models that
+ * were changed via the cache hooks ({@link #update(Descriptor)}) and the
+ * models that were inserted ({@code id > maxId}), changed ({@code last_change}
+ * after the last update), or deleted since the last update are determined
+ * per model table, and only the rows of these models are scanned again. When
+ * this is not possible, e.g. after {@link #invalidate()} was called or when
+ * too many models changed, the graph is rebuilt.
+ */
+public class ModelReferences {
+
+	private static final int VERSION = 1;
+	private static final String FILE = "model-references.bin";
+	private static final int CHUNK_SIZE = 1000;
+
+	/** Above this number of changed models, the graph is rebuilt. */
+	private static final int MAX_UPDATES = 10_000;
+
+	private static final ModelType[] types = ModelType.values();
+	private static final long ID_MASK = (1L << 56) - 1;
+
+	/** The model types that have an entry in the graph, with their tables. */
+	private static final Map<ModelType, String> tables = new EnumMap<>(Map.ofEntries(
+			Map.entry(ModelType.LOCATION, "tbl_locations"),
+			Map.entry(ModelType.SOURCE, "tbl_sources"),
+			Map.entry(ModelType.ACTOR, "tbl_actors"),
+			Map.entry(ModelType.CURRENCY, "tbl_currencies"),
+			Map.entry(ModelType.UNIT_GROUP, "tbl_unit_groups"),
+			Map.entry(ModelType.FLOW_PROPERTY, "tbl_flow_properties"),
+			Map.entry(ModelType.DQ_SYSTEM, "tbl_dq_systems"),
+			Map.entry(ModelType.PARAMETER, "tbl_parameters"),
+			Map.entry(ModelType.SOCIAL_INDICATOR, "tbl_social_indicators"),
+			Map.entry(ModelType.IMPACT_CATEGORY, "tbl_impact_categories"),
+			Map.entry(ModelType.IMPACT_METHOD, "tbl_impact_methods"),
+			Map.entry(ModelType.RESULT, "tbl_results"),
+			Map.entry(ModelType.EPD, "tbl_epds"),
+			Map.entry(ModelType.FLOW, "tbl_flows"),
+			Map.entry(ModelType.PROCESS, "tbl_processes"),
+			Map.entry(ModelType.PRODUCT_SYSTEM, "tbl_product_systems"),
+			Map.entry(ModelType.PROJECT, "tbl_projects")));
+
+	private static final Logger log = LoggerFactory.getLogger(ModelReferences.class);
+
+	/** The graph of the active database; guarded by the class lock. */
+	private static ModelReferences instance;
+
+	/** The keys of the models changed via the cache hooks; guarded by itself. */
+	private static final TLongHashSet pending = new TLongHashSet();
+
+	/** Is set when the graph needs to be rebuilt; guarded by {@code pending}. */
+	private static boolean invalid;
+
+	private final IDatabase database;
+	private TypedRefIdMap<Long> refIdToId = new TypedRefIdMap<>();
+	private final TLongObjectHashMap<String> keyToRefId = new TLongObjectHashMap<>();
+	private final TLongObjectHashMap<TLongHashSet> references = new TLongObjectHashMap<>();
+	private final TLongObjectHashMap<TLongHashSet> usages = new TLongObjectHashMap<>();
+	private final Map<String, Long> nameToParameter = new HashMap<>();
 
-class ModelReferences {
+	/** The state of the model tables when the graph was updated. */
+	private final EnumMap<ModelType, State> states = new EnumMap<>(ModelType.class);
 
-	private IDatabase database;
-	private TypedRefIdMap<Long> refIdToId = new TypedRefIdMap<>();
-	private EnumMap<ModelType, Map<Long, String>> idToRefId = new EnumMap<>(ModelType.class);
-	private ReferenceMap references = new ReferenceMap();
-	private ReferenceMap usages = new ReferenceMap();
-	private Map<String, Long> nameToParameter = new HashMap<>();
+	/**
+	 * When the graph is updated, the IDs of the models per type of which the
+	 * rows are scanned; {@code null} for a full scan.
+	 */
+	private EnumMap<ModelType, TLongArrayList> filter;
 
 	private ModelReferences(IDatabase database) {
 		this.database = database;
 	}
 
-	public static ModelReferences scan(IDatabase database) {
-		var refs = new ModelReferences(database);
-		refs.init();
-		refs.scan();
-		return refs;
+	/**
+	 * Returns the up-to-date reference graph of the given database. This can
+	 * take a while when the graph is built or many models were changed, so it
+	 * should not be called in the UI thread.
+	 */
+	public static synchronized ModelReferences of(IDatabase database) {
+		if (instance == null || instance.database != database) {
+			// changes before the graph was loaded, e.g. the cache eviction
+			// when the database was activated, are found via the table states
+			synchronized (pending) {
+				pending.clear();
+				invalid = false;
+			}
+			instance = load(database);
+		}
+		instance.sync();
+		return instance;
+	}
+
+	/**
+	 * Marks the given model as changed so that its references are updated
+	 * when the graph is requested the next time.
+	 */
+	public static void update(Descriptor d) {
+		synchronized (pending) {
+			if (d == null || d.type == null) {
+				invalid = true;
+				return;
+			}
+			if (tables.containsKey(d.type)) {
+				pending.add(keyOf(d.type, d.id));
+			}
+		}
+	}
+
+	/**
+	 * Marks the graph as invalid so that it is rebuilt when it is requested
+	 * the next time, e.g. after changes that did not go through the cache
+	 * hooks.
+	 */
+	public static void invalidate() {
+		synchronized (pending) {
+			invalid = true;
+		}
+	}
+
+	/**
+	 * Stores the graph of the active database, if there is one, and releases
+	 * it. This is called when the database is closed.
+	 */
+	public static synchronized void close() {
+		boolean wasInvalid;
+		synchronized (pending) {
+			wasInvalid = invalid;
+			pending.clear();
+			invalid = false;
+		}
+		var refs = instance;
+		instance = null;
+		if (refs == null)
+			return;
+		var file = fileOf(refs.database);
+		if (wasInvalid) {
+			file.delete();
+			return;
+		}
+		try {
+			refs.save(file);
+		} catch (Exception e) {
+			log.error("failed to store model references in " + file, e);
+			file.delete();
+		}
 	}
 
 	public Set<ModelReference> get(TypedRefId pair) {
@@ -52,25 +202,276 @@ class ModelReferences {
 		return get(usages, pair);
 	}
 
-	private Set<ModelReference> get(ReferenceMap map, TypedRefId pair) {
+	/**
+	 * Returns the models that are referenced by the given model directly or
+	 * indirectly, via the references of the referenced models.
+	 */
+	public Set<ModelReference> getTransitiveReferences(TypedRefId pair) {
 		var refs = new HashSet<ModelReference>();
-		var typeMap = map.get(pair.type);
-		if (typeMap == null)
+		var id = refIdToId.get(pair);
+		if (id == null)
 			return refs;
+		long start = keyOf(pair.type, id);
+		var visited = new TLongHashSet();
+		visited.add(start);
+		var queue = new TLongArrayList();
+		queue.add(start);
+		while (!queue.isEmpty()) {
+			long next = queue.removeAt(queue.size() - 1);
+			var targets = references.get(next);
+			if (targets == null)
+				continue;
+			targets.forEach(target -> {
+				if (visited.add(target)) {
+					queue.add(target);
+				}
+				return true;
+			});
+		}
+		visited.remove(start);
+		visited.forEach(key -> {
+			var refId = keyToRefId.get(key);
+			if (!Strings.nullOrEmpty(refId)) {
+				refs.add(new ModelReference(typeOf(key), idOf(key), refId));
+			}
+			return true;
+		});
+		return refs;
+	}
+
+	private Set<ModelReference> get(TLongObjectHashMap<TLongHashSet> map, TypedRefId pair) {
+		var refs = new HashSet<ModelReference>();
 		var id = refIdToId.get(pair);
-		var idMap = typeMap.get(id);
-		if (idMap == null)
+		if (id == null)
 			return refs;
-		idMap.keySet().forEach(targetType -> idMap.get(targetType)
-				.forEach(targetId -> {
-					var refId = idToRefId.get(targetType).get(targetId);
-					if (!Strings.nullOrEmpty(refId)) {
-						refs.add(new ModelReference(targetType, targetId, refId));
-					}
-				}));
+		var targets = map.get(keyOf(pair.type, id));
+		if (targets == null)
+			return refs;
+		targets.forEach(target -> {
+			var refId = keyToRefId.get(target);
+			if (!Strings.nullOrEmpty(refId)) {
+				refs.add(new ModelReference(typeOf(target), idOf(target), refId));
+			}
+			return true;
+		});
 		return refs;
 	}
 
+	private static long keyOf(ModelType type, long id) {
+		return ((long) type.ordinal() << 56) | (id & ID_MASK);
+	}
+
+	private static ModelType typeOf(long key) {
+		return types[(int) (key >>> 56)];
+	}
+
+	private static long idOf(long key) {
+		return key & ID_MASK;
+	}
+
+	/**
+	 * Loads the stored graph of the given database. If there is no stored
+	 * graph or it cannot be read, an empty graph is returned that is then
+	 * built in the first update.
+	 */
+	private static ModelReferences load(IDatabase database) {
+		var file = fileOf(database);
+		if (file.exists()) {
+			var refs = new ModelReferences(database);
+			try {
+				if (refs.read(file))
+					return refs;
+			} catch (Exception e) {
+				log.warn("failed to read model references from " + file, e);
+			}
+		}
+		// an empty graph without table states is rebuilt in the update
+		return new ModelReferences(database);
+	}
+
+	private static File fileOf(IDatabase database) {
+		return new File(DatabaseDir.getFileStorageLocation(database), FILE);
+	}
+
+	/**
+	 * Brings the graph in sync with the database: the references of changed
+	 * models are scanned again, or the graph is rebuilt when this is not
+	 * possible.
+	 */
+	private void sync() {
+		var changed = new TLongHashSet();
+		boolean rebuild;
+		synchronized (pending) {
+			changed.addAll(pending);
+			pending.clear();
+			rebuild = invalid;
+			invalid = false;
+		}
+		if (!rebuild) {
+			try {
+				rebuild = !collectChanges(changed);
+			} catch (Exception e) {
+				log.warn("failed to check the model tables for changes", e);
+				rebuild = true;
+			}
+		}
+		if (!rebuild) {
+			rebuild = changed.size() > MAX_UPDATES
+					|| hasType(changed, ModelType.PARAMETER);
+		}
+		if (rebuild) {
+			long start = System.currentTimeMillis();
+			rebuild();
+			log.trace("built model references in {} ms",
+					System.currentTimeMillis() - start);
+			return;
+		}
+		if (changed.isEmpty())
+			return;
+		update(changed);
+		log.trace("updated model references of {} models", changed.size());
+	}
+
+	private void rebuild() {
+		refIdToId = new TypedRefIdMap<>();
+		keyToRefId.clear();
+		references.clear();
+		usages.clear();
+		nameToParameter.clear();
+		states.clear();
+		for (var type : tables.keySet()) {
+			states.put(type, stateOf(type));
+		}
+		filter = null;
+		init();
+		scan();
+	}
+
+	/**
+	 * Scans the rows of the given models again. The references of the models
+	 * are removed first, so that deleted models and removed references are
+	 * dropped from the graph.
+	 */
+	private void update(TLongHashSet changed) {
+		filter = new EnumMap<>(ModelType.class);
+		var it = changed.iterator();
+		while (it.hasNext()) {
+			long key = it.next();
+			removeReferencesOf(key);
+			keyToRefId.remove(key);
+			filter.computeIfAbsent(typeOf(key), t -> new TLongArrayList())
+					.add(idOf(key));
+		}
+		try {
+			nameToParameter.clear();
+			init();
+			scan();
+		} finally {
+			filter = null;
+		}
+	}
+
+	private void removeReferencesOf(long key) {
+		var targets = references.remove(key);
+		if (targets == null)
+			return;
+		targets.forEach(target -> {
+			var sources = usages.get(target);
+			if (sources != null) {
+				sources.remove(key);
+				if (sources.isEmpty()) {
+					usages.remove(target);
+				}
+			}
+			return true;
+		});
+	}
+
+	/**
+	 * Adds the keys of the models that were inserted, changed, or deleted
+	 * since the last update to the given set. Returns false if the graph has
+	 * no table states, so that it needs to be rebuilt.
+	 */
+	private boolean collectChanges(TLongHashSet changed) {
+		if (states.isEmpty())
+			return false;
+		for (var e : tables.entrySet()) {
+			var type = e.getKey();
+			var old = states.get(type);
+			var current = stateOf(type);
+			if (old == null)
+				return false;
+			if (old.equals(current))
+				continue;
+			var sql = "SELECT id FROM " + e.getValue()
+					+ " WHERE (id > " + old.maxId
+					+ " OR last_change > " + old.lastChange + ")"
+					+ scopeOf(type, " AND ");
+			var found = new int[1];
+			NativeSql.on(database).query(sql, rs -> {
+				changed.add(keyOf(type, rs.getLong(1)));
+				found[0]++;
+				return true;
+			});
+			if (current.count != old.count + found[0]) {
+				collectDeleted(type, changed);
+			}
+			states.put(type, current);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the keys of the models of the given type that are in the graph but
+	 * not in the database anymore.
+	 */
+	private void collectDeleted(ModelType type, TLongHashSet changed) {
+		var ids = new TLongHashSet();
+		var sql = "SELECT id FROM " + tables.get(type) + scopeOf(type, " WHERE ");
+		NativeSql.on(database).query(sql, rs -> {
+			ids.add(rs.getLong(1));
+			return true;
+		});
+		keyToRefId.forEachKey(key -> {
+			if (typeOf(key) == type && !ids.contains(idOf(key))) {
+				changed.add(key);
+			}
+			return true;
+		});
+	}
+
+	private State stateOf(ModelType type) {
+		var sql = "SELECT COUNT(*), MAX(id), MAX(last_change) FROM "
+				+ tables.get(type) + scopeOf(type, " WHERE ");
+		var state = new long[3];
+		NativeSql.on(database).query(sql, rs -> {
+			state[0] = rs.getLong(1);
+			state[1] = rs.getLong(2);
+			state[2] = rs.getLong(3);
+			return false;
+		});
+		return new State(state[0], state[1], state[2]);
+	}
+
+	/**
+	 * Only global parameters are models; local parameters are stored in the
+	 * same table.
+	 */
+	private static String scopeOf(ModelType type, String prefix) {
+		return type == ModelType.PARAMETER
+				? prefix + "scope = 'GLOBAL'"
+				: "";
+	}
+
+	private static boolean hasType(TLongHashSet keys, ModelType type) {
+		var it = keys.iterator();
+		while (it.hasNext()) {
+			if (typeOf(it.next()) == type)
+				return true;
+		}
+		return false;
+	}
+
 	private void init() {
 		var query = "SELECT id, name FROM tbl_parameters WHERE scope = 'GLOBAL'";
 		NativeSql.on(database).query(query, rs -> {
@@ -138,6 +539,9 @@ class ModelReferences {
 	}
 
 	private void scanGlobalParameters() {
+		// global parameters are not updated incrementally
+		if (filter != null)
+			return;
 		var query = "SELECT id, ref_id FROM tbl_parameters WHERE scope = 'GLOBAL'";
 		NativeSql.on(database).query(query, rs -> {
 			var id = rs.getLong(1);
@@ -192,14 +596,14 @@ class ModelReferences {
 				new ModelField(ModelType.DQ_SYSTEM, "f_exchange_dq_system"),
 				new ModelField(ModelType.DQ_SYSTEM, "f_social_dq_system"));
 		scanTable("tbl_process_docs", false,
-				new ModelField(ModelType.PROCESS, "id", docsToProcess::get),
+				new ModelField(ModelType.PROCESS, "id", docsToProcess),
 				new ModelField(ModelType.ACTOR, "f_reviewer"),
 				new ModelField(ModelType.ACTOR, "f_data_documentor"),
 				new ModelField(ModelType.ACTOR, "f_data_generator"),
 				new ModelField(ModelType.ACTOR, "f_dataset_owner"),
 				new ModelField(ModelType.SOURCE, "f_publication"));
 		scanTable("tbl_source_links", false,
-				new ModelField(ModelType.PROCESS, "f_owner", docsToProcess::get),
+				new ModelField(ModelType.PROCESS, "f_owner", docsToProcess),
 				new ModelField(ModelType.SOURCE, "f_source"));
 		scanTable("tbl_exchanges", false,
 				new ModelField(ModelType.PROCESS, "f_owner"),
@@ -219,7 +623,7 @@ class ModelReferences {
 				new ModelField(ModelType.PROCESS, "f_provider"));
 		var setToSystem = scanTable("tbl_parameter_redef_sets", false, "id",
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"));
-		scanParameterRedefs(ModelType.PRODUCT_SYSTEM, setToSystem::get);
+		scanParameterRedefs(ModelType.PRODUCT_SYSTEM, setToSystem);
 	}
 
 	private void scanProjects() {
@@ -229,7 +633,7 @@ class ModelReferences {
 		var variantToProject = scanTable("tbl_project_variants", false, "id",
 				new ModelField(ModelType.PROJECT, "f_project"),
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"));
-		scanParameterRedefs(ModelType.PROJECT, variantToProject::get);
+		scanParameterRedefs(ModelType.PROJECT, variantToProject);
 	}
 
 	private void scanEpds() {
@@ -259,18 +663,25 @@ class ModelReferences {
 				new ModelField(ModelType.IMPACT_CATEGORY, "f_impact_category"));
 	}
 
-	private void scanParameterRedefs(ModelType ownerType, Function<Long, Long> mediator) {
+	private void scanParameterRedefs(ModelType ownerType, TLongLongHashMap mediator) {
 		var query = "SELECT f_owner,name FROM tbl_parameter_redefs WHERE context_type IS NULL";
-		NativeSql.on(database).query(query, rs -> {
-			var ownerId = rs.getLong(1);
-			var actualOwnerId = mediator.apply(ownerId);
-			if (actualOwnerId == null)
+		for (var where : wheresOf("f_owner", filter != null ? mediator.keys() : null)) {
+			var sql = where.isEmpty()
+					? query
+					: query + " AND " + where;
+			NativeSql.on(database).query(sql, rs -> {
+				var ownerId = rs.getLong(1);
+				var actualOwnerId = mediator.get(ownerId);
+				if (actualOwnerId == 0L)
+					return true;
+				var name = rs.getString(2);
+				var parameterId = nameToParameter.get(name);
+				if (parameterId == null)
+					return true;
+				putRef(ownerType, actualOwnerId, ModelType.PARAMETER, parameterId);
 				return true;
-			var name = rs.getString(2);
-			var parameterId = nameToParameter.get(name);
-			putRef(ownerType, ownerId, ModelType.PARAMETER, parameterId);
-			return true;
-		});
+			});
+		}
 	}
 
 	private void scanTable(String table, boolean isRootEntity, ModelField source, ModelField... targets) {
@@ -280,14 +691,14 @@ class ModelReferences {
 	/**
 	 * if idField is not null, idField is queried additionally and a map between
 	 * the value of source.field and value of idField is returned, otherwise an
-	 * empty map
+	 * empty map; the map returns 0 for IDs that are not contained
 	 */
-	private Map<Long, Long> scanTable(String table, boolean isRootEntity, String idField, ModelField source,
+	private TLongLongHashMap scanTable(String table, boolean isRootEntity, String idField, ModelField source,
 			ModelField... targets) {
 		var targetFields = targets != null
 				? Arrays.stream(targets).map(t -> t.field).toArray(n -> new String[n])
 				: new String[0];
-		var map = new HashMap<Long, Long>();
+		var map = new TLongLongHashMap();
 		query(table, isRootEntity, source, idField, targetFields, ids -> {
 			var col = 0;
 			var sourceId = ids[col++];
@@ -295,17 +706,19 @@ class ModelReferences {
 				map.put(ids[col++], sourceId);
 			}
 			if (source.mediator != null) {
-				sourceId = source.mediator.apply(sourceId);
+				sourceId = source.mediator.get(sourceId);
 			}
-			if (targets == null)
+			if (targets == null || sourceId == 0L)
 				return;
 			for (var target : targets) {
 				var targetId = ids[col++];
 				if (targetId == 0l)
 					continue;
 				if (target.mediator != null) {
-					targetId = target.mediator.apply(targetId);
+					targetId = target.mediator.get(targetId);
 				}
+				if (targetId == 0L)
+					continue;
 				putRef(source.type, sourceId, target.type, targetId);
 			}
 		});
@@ -323,48 +736,99 @@ class ModelReferences {
 		var query = "SELECT " + fields.stream().collect(Collectors.joining(","))
 				+ (isRootEntity ? ",ref_id " : "")
 				+ " FROM " + table;
-		NativeSql.on(database).query(query, rs -> {
-			var ids = new long[fields.size()];
-			for (var i = 0; i < fields.size(); i++) {
-				ids[i] += rs.getLong(i + 1);
-			}
-			var id = ids[0];
-			if (isRootEntity) {
-				var refId = rs.getString(fields.size() + 1);
-				putRefId(sourceField.type, id, refId);
+		var ids = filter == null
+				? null
+				: sourceField.mediator != null
+						? sourceField.mediator.keys()
+						: idsOf(sourceField.type);
+		for (var where : wheresOf(sourceField.field, ids)) {
+			var sql = where.isEmpty()
+					? query
+					: query + " WHERE " + where;
+			NativeSql.on(database).query(sql, rs -> {
+				var values = new long[fields.size()];
+				for (var i = 0; i < fields.size(); i++) {
+					values[i] += rs.getLong(i + 1);
+				}
+				var id = values[0];
+				if (isRootEntity) {
+					var refId = rs.getString(fields.size() + 1);
+					putRefId(sourceField.type, id, refId);
+				}
+				handler.handle(values);
+				return true;
+			});
+		}
+	}
+
+	/**
+	 * Returns the IDs of the models of the given type that are updated.
+	 */
+	private long[] idsOf(ModelType type) {
+		var ids = filter.get(type);
+		return ids != null
+				? ids.toArray()
+				: new long[0];
+	}
+
+	/**
+	 * Returns the conditions for scanning the rows of a table with the given
+	 * IDs in the given field in chunks. For a full scan, when the IDs are
+	 * {@code null}, this is a single empty condition; when the IDs are empty,
+	 * nothing needs to be scanned.
+	 */
+	private static List<String> wheresOf(String field, long[] ids) {
+		var wheres = new ArrayList<String>();
+		if (ids == null) {
+			wheres.add("");
+			return wheres;
+		}
+		for (int i = 0; i < ids.length; i += CHUNK_SIZE) {
+			var b = new StringBuilder(field).append(" IN (");
+			int end = Math.min(i + CHUNK_SIZE, ids.length);
+			for (int j = i; j < end; j++) {
+				if (j > i) {
+					b.append(',');
+				}
+				b.append(ids[j]);
 			}
-			handler.handle(ids);
-			return true;
-		});
+			wheres.add(b.append(')').toString());
+		}
+		return wheres;
 	}
 
 	private void putRef(ModelType sourceType, long sourceId, ModelType targetType, long targetId) {
-		references.computeIfAbsent(sourceType, t -> new HashMap<>())
-				.computeIfAbsent(sourceId, t -> new EnumMap<>(ModelType.class))
-				.computeIfAbsent(targetType, t -> new HashSet<>())
-				.add(targetId);
-		usages.computeIfAbsent(targetType, t -> new HashMap<>())
-				.computeIfAbsent(targetId, t -> new EnumMap<>(ModelType.class))
-				.computeIfAbsent(sourceType, t -> new HashSet<>())
-				.add(sourceId);
+		var source = keyOf(sourceType, sourceId);
+		var target = keyOf(targetType, targetId);
+		put(references, source, target);
+		put(usages, target, source);
+	}
+
+	private static void put(TLongObjectHashMap<TLongHashSet> map, long key, long value) {
+		var set = map.get(key);
+		if (set == null) {
+			set = new TLongHashSet(4);
+			map.put(key, set);
+		}
+		set.add(value);
 	}
 
 	private void putRefId(ModelType type, long id, String refId) {
 		refIdToId.put(new TypedRefId(type, refId), id);
-		idToRefId.computeIfAbsent(type, t -> new HashMap<>()).put(id, refId);
+		keyToRefId.put(keyOf(type, id), refId);
 	}
 
 	private class ModelField {
 
 		private final ModelType type;
 		private final String field;
-		private final Function<Long, Long> mediator;
+		private final TLongLongHashMap mediator;
 
 		private ModelField(ModelType type, String field) {
 			this(type, field, null);
 		}
 
-		private ModelField(ModelType type, String field, Function<Long, Long> mediator) {
+		private ModelField(ModelType type, String field, TLongLongHashMap mediator) {
 			this.type = type;
 			this.field = field;
 			this.mediator = mediator;
@@ -372,6 +836,76 @@ class ModelReferences {
 
 	}
 
+	private void save(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		try (var out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)))) {
+			out.writeInt(VERSION);
+			out.writeInt(states.size());
+			for (var e : states.entrySet()) {
+				var state = e.getValue();
+				out.writeInt(e.getKey().ordinal());
+				out.writeLong(state.count);
+				out.writeLong(state.maxId);
+				out.writeLong(state.lastChange);
+			}
+			out.writeInt(keyToRefId.size());
+			var refIds = keyToRefId.iterator();
+			while (refIds.hasNext()) {
+				refIds.advance();
+				out.writeLong(refIds.key());
+				out.writeUTF(refIds.value());
+			}
+			out.writeInt(references.size());
+			var refs = references.iterator();
+			while (refs.hasNext()) {
+				refs.advance();
+				out.writeLong(refs.key());
+				var targets = refs.value().toArray();
+				out.writeInt(targets.length);
+				for (var target : targets) {
+					out.writeLong(target);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the graph from the given file. Returns false if the file was
+	 * written in another format version.
+	 */
+	private boolean read(File file) throws IOException {
+		try (var in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)))) {
+			if (in.readInt() != VERSION)
+				return false;
+			int stateCount = in.readInt();
+			for (int i = 0; i < stateCount; i++) {
+				var type = types[in.readInt()];
+				states.put(type, new State(
+						in.readLong(), in.readLong(), in.readLong()));
+			}
+			int refIdCount = in.readInt();
+			for (int i = 0; i < refIdCount; i++) {
+				long key = in.readLong();
+				var refId = in.readUTF();
+				putRefId(typeOf(key), idOf(key), refId);
+			}
+			int sourceCount = in.readInt();
+			for (int i = 0; i < sourceCount; i++) {
+				long source = in.readLong();
+				int targetCount = in.readInt();
+				for (int j = 0; j < targetCount; j++) {
+					long target = in.readLong();
+					put(references, source, target);
+					put(usages, target, source);
+				}
+			}
+		}
+		init();
+		return true;
+	}
+
 	public class ModelReference extends TypedRefId {
 
 		public final long id;
@@ -383,14 +917,8 @@ class ModelReferences {
 
 	}
 
-	private class ReferenceMap extends EnumMap<ModelType, Map<Long, EnumMap<ModelType, Set<Long>>>> {
-
-		private static final long serialVersionUID = 8651176950184800797L;
-
-		public ReferenceMap() {
-			super(ModelType.class);
-		}
-
+	/** The number of models in a table, their largest ID and last change. */
+	private record State(long count, long maxId, long lastChange) {
 	}
 
 	private interface ResultHandler {
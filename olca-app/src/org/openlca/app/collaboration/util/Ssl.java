@@ -22,6 +22,7 @@ public class Ssl {
 	private static TrustManagerFactory trustManagerFactory;
 	private static Path keyStorePath = Paths.get(System.getProperty("java.home"), "lib", "security", "cacerts");
 	private static String keyStorePassword = "changeit";
+	private static volatile SSLContext context;
 	
 	static {
 		try {
@@ -36,7 +37,24 @@ public class Ssl {
 		}
 	}
 
-	static SSLContext createContext() {
+	/**
+	 * Returns the shared SSL context with the certificates of the key store.
+	 * The context is created once and replaced when certificates are added or
+	 * removed.
+	 */
+	static SSLContext context() {
+		var c = context;
+		if (c != null)
+			return c;
+		synchronized (Ssl.class) {
+			if (context == null) {
+				context = createContext();
+			}
+			return context;
+		}
+	}
+
+	private static synchronized SSLContext createContext() {
 		if (trustManagerFactory == null)
 			return null;
 		try {
@@ -61,6 +79,7 @@ public class Ssl {
 	public static void addCertificate(String name, Certificate certificate) {
 		try {
 			keyStore.setCertificateEntry(name, certificate);
+			context = null;
 		} catch (Exception e) {
 			log.error("Error adding certificate to keystore", e);
 		}
@@ -69,6 +88,7 @@ public class Ssl {
 	public static void removeCertificate(String name) {
 		try {
 			keyStore.deleteEntry(name);
+			context = null;
 		} catch (Exception e) {
 			log.error("Error removing certificate from keystore", e);
 		}
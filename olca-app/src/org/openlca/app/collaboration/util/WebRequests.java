@@ -5,8 +5,11 @@ import java.net.ConnectException;
 import java.net.SocketException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLHandshakeException;
 import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.MediaType;
@@ -27,11 +30,25 @@ import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
 
+/**
+ * Executes the web requests against collaboration servers. There is one
+ * long-lived client per server that is shared by all requests. All clients
+ * use the same SSL context, so that the JVM can keep the connections alive
+ * and reuse the TLS sessions of a server; the clients are only replaced when
+ * the SSL context changes, e.g. when a certificate was added.
+ */
 public class WebRequests {
 
 	private static final Logger log = LoggerFactory.getLogger(WebRequests.class);
+	private static final Gson gson = new Gson();
+	private static final Map<String, CachedClient> clients = new ConcurrentHashMap<>();
 
-	static {
+	/**
+	 * Returns the shared Gson instance for serializing request and response
+	 * data; Gson instances are thread-safe.
+	 */
+	public static Gson gson() {
+		return gson;
 	}
 
 	public static String encodeQuery(String query) {
@@ -53,8 +70,11 @@ public class WebRequests {
 			var response = call(type, request);
 			if (response.getStatus() >= 400 && response.getStatus() <= 599)
 				throw new WebRequestException(url, response);
-			if (response.getStatusInfo().getFamily() == Family.REDIRECTION)
-				return call(type, response.getLocation().toString(), sessionId, data);
+			if (response.getStatusInfo().getFamily() == Family.REDIRECTION) {
+				var location = response.getLocation().toString();
+				response.close();
+				return call(type, location, sessionId, data);
+			}
 			return response;
 		} catch (Exception e) {
 			if (e instanceof WebRequestException)
@@ -79,7 +99,7 @@ public class WebRequests {
 	}
 
 	private static Builder builder(String url, String sessionId, Object data) {
-		var resource = createClient().resource(url);
+		var resource = clientOf(url).resource(url);
 		var builder = resource.accept(MediaType.APPLICATION_JSON_TYPE, MediaType.TEXT_PLAIN_TYPE,
 				MediaType.APPLICATION_OCTET_STREAM_TYPE);
 		builder.header("lca-cs-client-api-version", RepositoryClient.API_VERSION);
@@ -89,14 +109,41 @@ public class WebRequests {
 		if (data instanceof InputStream) {
 			builder.entity(data, MediaType.APPLICATION_OCTET_STREAM_TYPE);
 		} else if (data != null) {
-			builder.entity(new Gson().toJson(data), MediaType.APPLICATION_JSON_TYPE);
+			builder.entity(gson.toJson(data), MediaType.APPLICATION_JSON_TYPE);
 		}
 		return builder;
 	}
 
-	private static Client createClient() {
+	/**
+	 * Returns the shared client of the server of the given URL.
+	 */
+	private static Client clientOf(String url) {
+		var context = Ssl.context();
+		var server = serverOf(url);
+		var cached = clients.get(server);
+		if (cached != null && cached.context == context)
+			return cached.client;
+		return clients.compute(server, (key, old) -> {
+			if (old != null && old.context == context)
+				return old;
+			if (old != null) {
+				old.client.destroy();
+			}
+			return new CachedClient(createClient(context), context);
+		}).client;
+	}
+
+	private static String serverOf(String url) {
+		try {
+			var uri = new URI(url);
+			return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+		} catch (URISyntaxException e) {
+			return url;
+		}
+	}
+
+	private static Client createClient(SSLContext context) {
 		var config = new DefaultClientConfig();
-		var context = Ssl.createContext();
 		if (context != null) {
 			config.getProperties().put(HTTPSProperties.PROPERTY_HTTPS_PROPERTIES,
 					new HTTPSProperties(HttpsURLConnection.getDefaultHostnameVerifier(), context));
@@ -107,6 +154,9 @@ public class WebRequests {
 		return client;
 	}
 
+	private record CachedClient(Client client, SSLContext context) {
+	}
+
 	public static enum Type {
 		GET, POST, PUT, DELETE;
 	}
@@ -16,6 +16,12 @@ public class LayerConfig {
 
 	private String fillParameter;
 
+	/**
+	 * True when this is one of the static base layers of the map which are
+	 * rendered into cached raster tiles.
+	 */
+	boolean base;
+
 	LayerConfig(FeatureCollection layer) {
 		this.layer = layer;
 	}
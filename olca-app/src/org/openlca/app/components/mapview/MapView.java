@@ -2,7 +2,10 @@ package org.openlca.app.components.mapview;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import org.eclipse.swt.SWT;
@@ -10,6 +13,7 @@ import org.eclipse.swt.events.MouseAdapter;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
@@ -34,11 +38,38 @@ import org.slf4j.LoggerFactory;
 
 public class MapView {
 
+	/**
+	 * The maximum number of zoom levels for which the projection of a layer
+	 * is kept in memory.
+	 */
+	private static final int MAX_CACHED_ZOOMS = 4;
+
+	/**
+	 * The default number of pre-rendered base layer tiles that are cached;
+	 * a tile of 256 * 256 pixels takes around 256 KB.
+	 */
+	private static final int MAX_CACHED_TILES = 96;
+
 	private final Canvas canvas;
 	private final Color white;
 
 	private List<LayerConfig> layers = new ArrayList<>();
-	private List<FeatureCollection> projections = new ArrayList<>();
+	private List<Projection> projections = Collections.emptyList();
+
+	/**
+	 * The projections of the layers by zoom level. The projections of a layer
+	 * are removed when the layer is removed; the tiles are only cleared when
+	 * the base layers change.
+	 */
+	private final Map<ProjectionKey, Projection> projectionCache =
+			new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<ProjectionKey, Projection> eldest) {
+					return size() > MAX_CACHED_ZOOMS * Math.max(1, layers.size());
+				}
+			};
+	private final TileCache tiles = new TileCache(MAX_CACHED_TILES);
 
 	private final Translation translation = new Translation();
 	private int zoom = 0;
@@ -58,6 +89,7 @@ public class MapView {
 			}
 		});
 		canvas.addMouseListener(new DragSupport());
+		canvas.addDisposeListener(e -> tiles.clear());
 	}
 
 	public void update() {
@@ -82,25 +114,36 @@ public class MapView {
 	}
 
 	private void projectLayers() {
-		projections.clear();
+		var list = new ArrayList<Projection>(layers.size());
 		for (LayerConfig config : layers) {
-			FeatureCollection projection = WebMercator.project(
-					config.layer, zoom);
-			projections.add(projection);
+			var key = new ProjectionKey(config, zoom);
+			var projection = projectionCache.get(key);
+			if (projection == null) {
+				projection = Projection.of(config.layer, zoom);
+				projectionCache.put(key, projection);
+			}
+			list.add(projection);
 		}
+		projections = list;
 	}
 
 	public LayerConfig addLayer(FeatureCollection layer) {
 		LayerConfig config = new LayerConfig(layer);
 		layers.add(config);
+		projections = Collections.emptyList();
 		return config;
 	}
 
 	public void removeLayer(LayerConfig config) {
 		if (config == null)
 			return;
-		layers.remove(config);
-		projections.clear();
+		if (!layers.remove(config))
+			return;
+		projections = Collections.emptyList();
+		projectionCache.keySet().removeIf(key -> key.config == config);
+		if (config.base) {
+			tiles.clear();
+		}
 	}
 
 	public void addBaseLayers() {
@@ -116,6 +159,7 @@ public class MapView {
 		};
 		Color blue = Colors.get(170, 218, 255);
 		Color brown = Colors.get(249, 246, 231);
+		int first = layers.size();
 		addLayer(fn.apply("oceans.protopack.gz"))
 				.fillColor(blue)
 				.borderColor(blue);
@@ -125,13 +169,17 @@ public class MapView {
 				.fillColor(blue)
 				.borderColor(blue);
 		addLayer(fn.apply("countries.protopack.gz"));
+		for (int i = first; i < layers.size(); i++) {
+			layers.get(i).base = true;
+		}
+		tiles.clear();
 	}
 
 	/**
 	 * Find an initial zoom and center and calculate the projections.
 	 */
 	private void initProjection() {
-		projections.clear();
+		projections = Collections.emptyList();
 		if (layers.isEmpty()) {
 			return;
 		}
@@ -192,58 +240,157 @@ public class MapView {
 		if (projections.isEmpty())
 			return;
 
-		for (int i = 0; i < projections.size(); i++) {
-			LayerConfig config = layers.get(i);
-			gc.setForeground(config.getBorderColor());
-			FeatureCollection projection = projections.get(i);
-			for (Feature f : projection.features) {
-				if (!translation.visible(f)) {
+		// the base layers are drawn from pre-rendered tiles
+		int baseLayers = baseLayerCount();
+		if (baseLayers > 0) {
+			renderTiles(gc, baseLayers);
+		}
+
+		for (int i = baseLayers; i < projections.size(); i++) {
+			render(gc, translation, layers.get(i),
+					projections.get(i), translation.view);
+		}
+	}
+
+	/**
+	 * Returns the number of base layers at the bottom of the layer stack.
+	 */
+	private int baseLayerCount() {
+		int count = 0;
+		for (LayerConfig config : layers) {
+			if (!config.base)
+				break;
+			count++;
+		}
+		return count;
+	}
+
+	private void renderTiles(GC gc, int baseLayers) {
+		int size = TileCache.TILE_SIZE;
+		Bounds view = translation.view;
+		int minX = (int) Math.floor(view.minX / size);
+		int maxX = (int) Math.floor(view.maxX / size);
+		int minY = (int) Math.floor(view.minY / size);
+		int maxY = (int) Math.floor(view.maxY / size);
+		tiles.ensureCapacity(2 * (maxX - minX + 1) * (maxY - minY + 1));
+		for (int ty = minY; ty <= maxY; ty++) {
+			for (int tx = minX; tx <= maxX; tx++) {
+				Bounds bounds = tileBounds(tx, ty);
+				if (!intersectsBaseLayers(bounds, baseLayers))
 					continue;
+				Image tile = tiles.get(zoom, tx, ty);
+				if (tile == null) {
+					tile = renderTile(tx, ty, bounds, baseLayers);
+					tiles.put(zoom, tx, ty, tile);
 				}
-				render(gc, config, f, f.geometry);
+				gc.drawImage(tile,
+						(int) (tx * size + translation.x),
+						(int) (ty * size + translation.y));
 			}
 		}
 	}
 
-	private void render(GC gc, LayerConfig conf, Feature f, Geometry g) {
+	private Image renderTile(int tx, int ty, Bounds bounds, int baseLayers) {
+		int size = TileCache.TILE_SIZE;
+		Image image = new Image(canvas.getDisplay(), size, size);
+		GC gc = new GC(image);
+		try {
+			gc.setBackground(white);
+			gc.fillRectangle(0, 0, size, size);
+			Translation t = new Translation();
+			t.x = -tx * size;
+			t.y = -ty * size;
+			for (int i = 0; i < baseLayers; i++) {
+				render(gc, t, layers.get(i), projections.get(i), bounds);
+			}
+		} finally {
+			gc.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Returns the projected pixel area of a tile with a margin so that the
+	 * borders and points of features in neighbouring tiles are included.
+	 */
+	private Bounds tileBounds(int tx, int ty) {
+		int size = TileCache.TILE_SIZE;
+		int margin = 5 + zoom;
+		Bounds bounds = new Bounds();
+		bounds.minX = tx * size - margin;
+		bounds.maxX = (tx + 1) * size + margin;
+		bounds.minY = ty * size - margin;
+		bounds.maxY = (ty + 1) * size + margin;
+		bounds.isNil = false;
+		return bounds;
+	}
+
+	private boolean intersectsBaseLayers(Bounds bounds, int baseLayers) {
+		for (int i = 0; i < baseLayers; i++) {
+			Bounds layerBounds = projections.get(i).bounds;
+			if (layerBounds != null && layerBounds.intersects(bounds))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Renders the features of the given projection that intersect with the
+	 * given view.
+	 */
+	private void render(GC gc, Translation t, LayerConfig config,
+			Projection projection, Bounds view) {
+		gc.setForeground(config.getBorderColor());
+		List<Feature> features = projection.features.features;
+		for (int i = 0; i < features.size(); i++) {
+			Bounds bounds = projection.featureBounds[i];
+			if (bounds == null || !bounds.intersects(view))
+				continue;
+			Feature f = features.get(i);
+			render(gc, t, config, f, f.geometry);
+		}
+	}
+
+	private void render(GC gc, Translation t, LayerConfig conf,
+			Feature f, Geometry g) {
 		if (g == null)
 			return;
 
 		// points
 		if (g instanceof Point) {
-			renderPoint(gc, conf, f, (Point) g);
+			renderPoint(gc, t, conf, f, (Point) g);
 			return;
 		}
 		if (g instanceof MultiPoint) {
 			MultiPoint mp = (MultiPoint) g;
 			for (Point p : mp.points) {
-				renderPoint(gc, conf, f, p);
+				renderPoint(gc, t, conf, f, p);
 			}
 			return;
 		}
 
 		// lines
 		if (g instanceof LineString) {
-			renderLine(gc, conf, f, (LineString) g);
+			renderLine(gc, t, conf, f, (LineString) g);
 			return;
 		}
 		if (g instanceof MultiLineString) {
 			MultiLineString ml = (MultiLineString) g;
 			for (LineString line : ml.lineStrings) {
-				renderLine(gc, conf, f, line);
+				renderLine(gc, t, conf, f, line);
 			}
 			return;
 		}
 
 		// polygons
 		if (g instanceof Polygon) {
-			renderPolygon(gc, conf, f, (Polygon) g);
+			renderPolygon(gc, t, conf, f, (Polygon) g);
 			return;
 		}
 		if (f.geometry instanceof MultiPolygon) {
 			MultiPolygon mp = (MultiPolygon) f.geometry;
 			for (Polygon polygon : mp.polygons) {
-				renderPolygon(gc, conf, f, polygon);
+				renderPolygon(gc, t, conf, f, polygon);
 			}
 			return;
 		}
@@ -251,13 +398,14 @@ public class MapView {
 		if (g instanceof GeometryCollection) {
 			GeometryCollection coll = (GeometryCollection) g;
 			for (Geometry gg : coll.geometries) {
-				render(gc, conf, f, gg);
+				render(gc, t, conf, f, gg);
 			}
 		}
 	}
 
-	private void renderPolygon(GC gc, LayerConfig conf, Feature f, Polygon polygon) {
-		int[] points = translation.translate(polygon);
+	private void renderPolygon(GC gc, Translation t, LayerConfig conf,
+			Feature f, Polygon polygon) {
+		int[] points = t.translate(polygon);
 		Color fillColor = conf.getFillColor(f);
 		if (fillColor != null) {
 			gc.setBackground(fillColor);
@@ -270,15 +418,17 @@ public class MapView {
 		gc.drawPolygon(points);
 	}
 
-	private void renderLine(GC gc, LayerConfig conf, Feature f, LineString line) {
-		int[] points = translation.translate(line);
+	private void renderLine(GC gc, Translation t, LayerConfig conf,
+			Feature f, LineString line) {
+		int[] points = t.translate(line);
 		gc.setLineWidth(5 + zoom);
 		gc.drawPolyline(points);
 		gc.setLineWidth(1);
 	}
 
-	private void renderPoint(GC gc, LayerConfig conf, Feature f, Point point) {
-		int[] p = translation.translate(point);
+	private void renderPoint(GC gc, Translation t, LayerConfig conf,
+			Feature f, Point point) {
+		int[] p = t.translate(point);
 		Color fillColor = conf.getFillColor(f);
 		int r = 5 + zoom;
 		if (fillColor != null) {
@@ -337,13 +487,6 @@ public class MapView {
 			center.y = c.y;
 		}
 
-		boolean visible(Feature f) {
-			if (f == null || f.geometry == null)
-				return false;
-			Bounds bounds = Bounds.of(f.geometry);
-			return bounds.intersects(view);
-		}
-
 		int[] translate(Polygon polygon) {
 			if (polygon == null || polygon.rings.size() < 1)
 				return new int[0];
@@ -372,6 +515,37 @@ public class MapView {
 		}
 	}
 
+	/**
+	 * A layer projected for a zoom level. The bounds of the features are
+	 * calculated once so that they do not need to be calculated again when
+	 * the map is rendered.
+	 */
+	private static class Projection {
+
+		final FeatureCollection features;
+		final Bounds[] featureBounds;
+		final Bounds bounds;
+
+		private Projection(FeatureCollection features) {
+			this.features = features;
+			this.featureBounds = new Bounds[features.features.size()];
+			for (int i = 0; i < featureBounds.length; i++) {
+				Feature f = features.features.get(i);
+				if (f != null && f.geometry != null) {
+					featureBounds[i] = Bounds.of(f.geometry);
+				}
+			}
+			this.bounds = Bounds.of(features);
+		}
+
+		static Projection of(FeatureCollection layer, int zoom) {
+			return new Projection(WebMercator.project(layer, zoom));
+		}
+	}
+
+	private record ProjectionKey(LayerConfig config, int zoom) {
+	}
+
 	private class DragSupport extends MouseAdapter {
 		int startX;
 		int startY;
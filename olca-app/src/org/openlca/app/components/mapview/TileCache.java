@@ -0,0 +1,70 @@
+package org.openlca.app.components.mapview;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Image;
+
+/**
+ * An LRU cache of pre-rendered map tiles. A tile is identified by its zoom
+ * level and its x and y index in the projected pixel space. The images of
+ * evicted tiles are disposed.
+ */
+class TileCache {
+
+	static final int TILE_SIZE = 256;
+
+	private int maxSize;
+	private final LinkedHashMap<Key, Image> tiles;
+
+	TileCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.tiles = new LinkedHashMap<>(maxSize, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Image> eldest) {
+				if (size() <= TileCache.this.maxSize)
+					return false;
+				eldest.getValue().dispose();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Makes sure that at least the given number of tiles can be cached, e.g.
+	 * all tiles that are visible on a large screen at the same time.
+	 */
+	void ensureCapacity(int size) {
+		maxSize = Math.max(maxSize, size);
+	}
+
+	/**
+	 * Returns the cached tile or null if it is not in the cache.
+	 */
+	Image get(int zoom, int x, int y) {
+		var image = tiles.get(new Key(zoom, x, y));
+		return image == null || image.isDisposed()
+				? null
+				: image;
+	}
+
+	void put(int zoom, int x, int y, Image image) {
+		var old = tiles.put(new Key(zoom, x, y), image);
+		if (old != null && old != image) {
+			old.dispose();
+		}
+	}
+
+	/**
+	 * Disposes all cached tiles.
+	 */
+	void clear() {
+		for (var image : tiles.values()) {
+			image.dispose();
+		}
+		tiles.clear();
+	}
+
+	private record Key(int zoom, int x, int y) {
+	}
+}
@@ -1,7 +1,12 @@
 package org.openlca.app.db;
 
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.openlca.app.collaboration.navigation.actions.ModelReferences;
+import org.openlca.app.search.SearchIndex;
 import org.openlca.core.database.EntityCache;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.matrix.cache.MatrixCache;
@@ -23,6 +28,18 @@ public final class Cache {
 	private static MatrixCache matrixCache;
 	private static PathBuilder pathCache;
 
+	private static final AtomicLong evictCalls = new AtomicLong();
+	private static final AtomicLong evictedEntries = new AtomicLong();
+	private static final AtomicLong fullEvictions = new AtomicLong();
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * The entries that were requested via {@link #get(Class, long)} since they
+	 * were evicted the last time; used to count cache hits and misses.
+	 */
+	private static final Set<Key> requested = ConcurrentHashMap.newKeySet();
+
 	private Cache() {
 	}
 
@@ -30,6 +47,25 @@ public final class Cache {
 		return entityCache;
 	}
 
+	/**
+	 * Returns the entity or descriptor with the given type and ID from the
+	 * entity cache and counts the lookup as hit or miss: a lookup is a miss
+	 * when the entry was not requested since it was evicted the last time.
+	 * The entity cache can also drop entries on its own, so the number of
+	 * hits is an upper bound. Returns {@code null} when there is no cache.
+	 */
+	public static <T> T get(Class<T> type, long id) {
+		var cache = entityCache;
+		if (cache == null)
+			return null;
+		if (requested.add(new Key(type, id))) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return cache.get(type, id);
+	}
+
 	public static MatrixCache getMatrixCache() {
 		return matrixCache;
 	}
@@ -43,7 +79,7 @@ public final class Cache {
 	}
 
 	public static void close() {
-		log.trace("close cache");
+		log.trace("close cache; {}", getStats());
 		evictAll();
 		entityCache = null;
 		matrixCache = null;
@@ -67,38 +103,74 @@ public final class Cache {
 		return appCache;
 	}
 
+	/**
+	 * Returns the current values of the lookup and eviction counters.
+	 */
+	public static Stats getStats() {
+		return new Stats(
+				hits.get(),
+				misses.get(),
+				evictCalls.get(),
+				evictedEntries.get(),
+				fullEvictions.get());
+	}
+
 	public static void evict(Descriptor d) {
 		if (d == null)
 			return;
 		log.trace("evict {} with ID {}", d.getClass(), d.id);
-		if (d.type == null)
+		evictCalls.incrementAndGet();
+		SearchIndex.update(d);
+		ModelReferences.update(d);
+		if (d.type == null) {
 			evictAll(); // to be on the save side
-		else if (shouldEvictAll(d.type)) {
-			if (entityCache != null)
-				entityCache.invalidateAll();
-			evictFromMatrices(d);
-		} else {
-			evictEntity(d);
-			evictFromMatrices(d);
+			return;
+		}
+		evictEntity(d);
+		if (CacheDependencies.existFor(d.type)) {
+			evictDependents(d);
 		}
+		evictFromMatrices(d);
 	}
 
-	private static boolean shouldEvictAll(ModelType type) {
-		return type == ModelType.UNIT_GROUP
-				|| type == ModelType.FLOW
-				|| type == ModelType.FLOW_PROPERTY
-				|| type == ModelType.CATEGORY;
+	/**
+	 * Evicts the cached entities that reference the given model. If the
+	 * references cannot be resolved, the entity cache is cleared.
+	 */
+	private static void evictDependents(Descriptor d) {
+		var cache = entityCache;
+		var db = Database.get();
+		if (cache == null || db == null)
+			return;
+		try {
+			var deps = CacheDependencies.of(db, d);
+			for (var dep : deps) {
+				cache.invalidate(dep.type(), dep.id());
+				requested.remove(new Key(dep.type(), dep.id()));
+			}
+			evictedEntries.addAndGet(deps.size());
+			log.trace("evicted {} dependent entries of {}", deps.size(), d);
+		} catch (Exception e) {
+			log.warn("failed to resolve cache dependencies of " + d, e);
+			cache.invalidateAll();
+			requested.clear();
+			fullEvictions.incrementAndGet();
+		}
 	}
 
 	public static void evictAll() {
 		log.trace("evict all from caches");
 		if (entityCache != null) {
 			entityCache.invalidateAll();
+			fullEvictions.incrementAndGet();
 		}
+		requested.clear();
 		if (matrixCache != null) {
 			matrixCache.evictAll();
 		}
 		pathCache = null;
+		SearchIndex.invalidate();
+		ModelReferences.invalidate();
 	}
 
 	private static void evictEntity(Descriptor d) {
@@ -108,11 +180,15 @@ public final class Cache {
 		Class<?> clazz = d.getClass();
 		log.trace("evict from entity cache {} with id={}", clazz, id);
 		entityCache.invalidate(clazz, id);
+		requested.remove(new Key(clazz, id));
+		evictedEntries.incrementAndGet();
 		if (d.type == null)
 			return;
 		clazz = d.type.getModelClass();
 		log.trace("evict from entity cache {} with id={}", clazz, id);
 		entityCache.invalidate(clazz, id);
+		requested.remove(new Key(clazz, id));
+		evictedEntries.incrementAndGet();
 		if (d.type == ModelType.CATEGORY) {
 			pathCache = null;
 		}
@@ -125,10 +201,37 @@ public final class Cache {
 	}
 
 	public static void registerNew(Descriptor descriptor) {
+		SearchIndex.update(descriptor);
+		ModelReferences.update(descriptor);
 		if (matrixCache == null)
 			return;
 		log.trace("register new model {}", descriptor);
 		matrixCache.registerNew(descriptor.type, descriptor.id);
 	}
 
+	/**
+	 * Counters of the cache lookups and evictions since the start of the
+	 * application.
+	 *
+	 * @param hits           the number of lookups via {@link #get(Class, long)}
+	 *                       of entries that were already requested before
+	 * @param misses         the number of lookups via {@link #get(Class, long)}
+	 *                       of entries that needed to be loaded
+	 * @param evictCalls     the number of evicted models
+	 * @param evictedEntries the number of single entries that were removed
+	 *                       from the entity cache
+	 * @param fullEvictions  the number of times the complete entity cache
+	 *                       was cleared
+	 */
+	public record Stats(
+			long hits,
+			long misses,
+			long evictCalls,
+			long evictedEntries,
+			long fullEvictions) {
+	}
+
+	private record Key(Class<?> type, long id) {
+	}
+
 }
@@ -0,0 +1,278 @@
+package org.openlca.app.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.Flow;
+import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.FlowPropertyFactor;
+import org.openlca.core.model.ImpactCategory;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.ProductSystem;
+import org.openlca.core.model.SocialIndicator;
+import org.openlca.core.model.Unit;
+import org.openlca.core.model.UnitGroup;
+import org.openlca.core.model.descriptors.CategoryDescriptor;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.core.model.descriptors.FlowDescriptor;
+import org.openlca.core.model.descriptors.FlowPropertyDescriptor;
+import org.openlca.core.model.descriptors.UnitGroupDescriptor;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+import jakarta.persistence.Table;
+
+/**
+ * Resolves the entries of the entity cache that reference a changed unit
+ * group, flow property, flow, or category. The cached entities of these types
+ * are shared by other entities; e.g. a flow holds its flow properties which
+ * hold their unit groups, and a process holds the flows, units, and flow
+ * property factors of its exchanges. Thus, when such a model is changed, the
+ * cached entities that reference it directly or transitively are stale too:
+ * unit group -> units and flow properties -> flows and their factors ->
+ * processes and impact categories with exchanges and factors of these flows,
+ * product systems with a reference exchange, target unit, or flow property
+ * factor of them, and social indicators with an activity quantity or unit of
+ * them. The references are queried from the database when the model is
+ * evicted.
+ */
+class CacheDependencies {
+
+	private static final int CHUNK_SIZE = 1000;
+
+	private final IDatabase db;
+	private final Map<Class<?>, TLongHashSet> entries = new HashMap<>();
+
+	private CacheDependencies(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Returns true if cached entities of other models can reference models of
+	 * the given type.
+	 */
+	static boolean existFor(ModelType type) {
+		return type == ModelType.UNIT_GROUP
+				|| type == ModelType.FLOW
+				|| type == ModelType.FLOW_PROPERTY
+				|| type == ModelType.CATEGORY;
+	}
+
+	/**
+	 * Returns the cache entries that depend on the given model, not including
+	 * the entries of the model itself.
+	 */
+	static List<Entry> of(IDatabase db, Descriptor d) {
+		var deps = new CacheDependencies(db);
+		switch (d.type) {
+			case UNIT_GROUP -> deps.unitGroup(d.id);
+			case FLOW_PROPERTY -> deps.flowProperties(new long[]{d.id});
+			case FLOW -> deps.flows(new long[]{d.id});
+			case CATEGORY -> deps.category(d);
+			default -> {
+			}
+		}
+		var own = deps.entries.get(d.type.getModelClass());
+		if (own != null) {
+			own.remove(d.id);
+		}
+		var list = new ArrayList<Entry>();
+		for (var e : deps.entries.entrySet()) {
+			var it = e.getValue().iterator();
+			while (it.hasNext()) {
+				list.add(new Entry(e.getKey(), it.next()));
+			}
+		}
+		return list;
+	}
+
+	private void unitGroup(long id) {
+		var units = ids(
+				"select id from tbl_units where f_unit_group = " + id);
+		add(Unit.class, units);
+		var props = ids(
+				"select id from tbl_flow_properties where f_unit_group = " + id);
+		add(FlowProperty.class, props);
+		add(FlowPropertyDescriptor.class, props);
+		add(UnitGroupDescriptor.class, new TLongArrayList(new long[]{id}));
+
+		var unitIds = units.toArray();
+		forChunks(unitIds, in -> {
+			add(ProductSystem.class, ids("select id from tbl_product_systems"
+					+ " where f_target_unit in (" + in + ")"));
+			add(SocialIndicator.class, ids("select id from tbl_social_indicators"
+					+ " where f_activity_unit in (" + in + ")"));
+		});
+		flowProperties(props.toArray());
+	}
+
+	private void flowProperties(long[] ids) {
+		if (ids.length == 0)
+			return;
+		var factors = new TLongArrayList();
+		var flows = new TLongHashSet();
+		forChunks(ids, in -> {
+			var sql = "select id, f_flow from tbl_flow_property_factors"
+					+ " where f_flow_property in (" + in + ")";
+			NativeSql.on(db).query(sql, r -> {
+				factors.add(r.getLong(1));
+				flows.add(r.getLong(2));
+				return true;
+			});
+			add(UnitGroup.class, ids("select id from tbl_unit_groups"
+					+ " where f_default_flow_property in (" + in + ")"));
+			add(SocialIndicator.class, ids("select id from tbl_social_indicators"
+					+ " where f_activity_quantity in (" + in + ")"));
+		});
+		add(FlowPropertyFactor.class, factors);
+		forChunks(factors.toArray(), in -> add(ProductSystem.class, ids(
+				"select id from tbl_product_systems"
+						+ " where f_target_flow_property_factor in (" + in + ")")));
+		flows(flows.toArray());
+	}
+
+	private void flows(long[] ids) {
+		if (ids.length == 0)
+			return;
+		var list = new TLongArrayList(ids);
+		add(Flow.class, list);
+		add(FlowDescriptor.class, list);
+		forChunks(ids, in -> {
+			add(FlowPropertyFactor.class, ids("select id from"
+					+ " tbl_flow_property_factors where f_flow in (" + in + ")"));
+			add(Process.class, ids("select distinct f_owner from tbl_exchanges"
+					+ " where f_flow in (" + in + ")"));
+			add(ImpactCategory.class, ids("select distinct f_impact_category"
+					+ " from tbl_impact_factors where f_flow in (" + in + ")"));
+			add(ProductSystem.class, ids("select s.id from tbl_product_systems s"
+					+ " inner join tbl_exchanges e on s.f_reference_exchange = e.id"
+					+ " where e.f_flow in (" + in + ")"));
+		});
+	}
+
+	private void category(Descriptor d) {
+		long id = d.id;
+
+		// the full paths of the categories and models are built from the
+		// parent chains of the cached categories; thus, all descendants of
+		// the category are affected by a change of its name or position
+		var children = new TLongObjectHashMap<TLongArrayList>();
+		var parent = new long[]{0};
+		var types = new ArrayList<String>();
+		NativeSql.on(db).query(
+				"select id, f_category, model_type from tbl_categories", r -> {
+					long catId = r.getLong(1);
+					long parentId = r.getLong(2);
+					if (catId == id) {
+						parent[0] = parentId;
+						types.add(r.getString(3));
+					}
+					if (parentId != 0) {
+						var list = children.get(parentId);
+						if (list == null) {
+							list = new TLongArrayList();
+							children.put(parentId, list);
+						}
+						list.add(catId);
+					}
+					return true;
+				});
+
+		var subTree = new TLongArrayList();
+		var queue = new TLongArrayList();
+		queue.add(id);
+		var visited = new TLongHashSet();
+		while (!queue.isEmpty()) {
+			long next = queue.removeAt(queue.size() - 1);
+			if (!visited.add(next))
+				continue;
+			subTree.add(next);
+			var list = children.get(next);
+			if (list != null) {
+				queue.addAll(list);
+			}
+		}
+
+		// the parent holds a reference to this category in its child list
+		var related = new TLongArrayList();
+		for (int i = 1; i < subTree.size(); i++) {
+			related.add(subTree.get(i));
+		}
+		if (parent[0] != 0) {
+			related.add(parent[0]);
+		}
+		if (d instanceof CategoryDescriptor c && c.category != null
+				&& c.category != parent[0]) {
+			related.add(c.category);
+		}
+		add(Category.class, related);
+		add(CategoryDescriptor.class, related);
+
+		// the models in the category and its sub-categories hold references
+		// to these categories
+		var ids = subTree.toArray();
+		for (var t : types) {
+			if (t == null)
+				continue;
+			var clazz = ModelType.valueOf(t).getModelClass();
+			if (clazz == null || !clazz.isAnnotationPresent(Table.class))
+				continue;
+			var table = clazz.getAnnotation(Table.class).name();
+			forChunks(ids, in -> add(clazz, ids("select id from " + table
+					+ " where f_category in (" + in + ")")));
+		}
+	}
+
+	private TLongArrayList ids(String sql) {
+		var ids = new TLongArrayList();
+		NativeSql.on(db).query(sql, r -> {
+			long id = r.getLong(1);
+			if (id != 0) {
+				ids.add(id);
+			}
+			return true;
+		});
+		return ids;
+	}
+
+	private void add(Class<?> type, TLongArrayList ids) {
+		if (ids.isEmpty())
+			return;
+		entries.computeIfAbsent(type, t -> new TLongHashSet()).addAll(ids);
+	}
+
+	/**
+	 * Calls the given function with the comma separated IDs of each chunk of
+	 * the given IDs.
+	 */
+	private static void forChunks(long[] ids, Consumer<String> fn) {
+		for (int i = 0; i < ids.length; i += CHUNK_SIZE) {
+			var chunk = Arrays.copyOfRange(
+					ids, i, Math.min(i + CHUNK_SIZE, ids.length));
+			fn.accept(join(chunk));
+		}
+	}
+
+	private static String join(long[] ids) {
+		var b = new StringBuilder();
+		for (int i = 0; i < ids.length; i++) {
+			if (i > 0) {
+				b.append(',');
+			}
+			b.append(ids[i]);
+		}
+		return b.toString();
+	}
+
+	record Entry(Class<?> type, long id) {
+	}
+}
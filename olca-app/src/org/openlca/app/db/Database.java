@@ -6,9 +6,12 @@ import java.util.HashSet;
 import java.util.Objects;
 
 import org.openlca.app.M;
+import org.openlca.app.collaboration.navigation.actions.ModelReferences;
+import org.openlca.app.devtools.python.Jython;
 import org.openlca.app.navigation.CopyPaste;
 import org.openlca.app.rcp.RcpWindowAdvisor;
 import org.openlca.app.rcp.Workspace;
+import org.openlca.app.search.SearchIndex;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.core.database.Derby;
 import org.openlca.core.database.IDatabase;
@@ -43,6 +46,7 @@ public class Database {
 		try {
 			database = config.connect(Workspace.dbDir());
 			Cache.create(database);
+			SearchIndex.create(database);
 			Database.config = config;
 			Logger log = LoggerFactory.getLogger(Database.class);
 			log.trace("activated database {} with version{}",
@@ -53,6 +57,7 @@ public class Database {
 		} catch (Exception e) {
 			database = null;
 			Cache.close();
+			SearchIndex.close();
 			Database.config = null;
 			ErrorReporter.on("failed to activate database: " + config, e);
 			return null;
@@ -71,8 +76,13 @@ public class Database {
 	public static void close() throws Exception {
 		if (database == null)
 			return;
+		// before the cache, as evicting the cache invalidates the references
+		ModelReferences.close();
 		Cache.close();
+		SearchIndex.close();
+		Libraries.releaseAll();
 		CopyPaste.clearCache();
+		Jython.close();
 		database.close();
 		database = null;
 		config = null;
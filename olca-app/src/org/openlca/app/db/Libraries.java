@@ -12,7 +12,9 @@ import java.io.FileReader;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -51,6 +53,22 @@ public final class Libraries {
 
 	private static final Logger log = LoggerFactory.getLogger(Libraries.class);
 
+	/**
+	 * The library readers of the active database by library ID. Creating a
+	 * reader of a licensed library requires the session credentials and the
+	 * decryption of the library data, so the readers are created once and
+	 * reused until the database is closed or the library session is removed.
+	 * <p>
+	 * A {@link LibReader} is not thread-safe: it loads and caches the library
+	 * matrices lazily. The cached readers are filled in {@link #fill} while
+	 * holding the lock of the reader, and a calculation that uses them via
+	 * {@link #readersForCalculation()} needs to be the only one at a time.
+	 * Calculations that run concurrently need to get their own readers via
+	 * {@link #newReadersForCalculation()}.
+	 */
+	private static final Map<String, LibReader> readers = new HashMap<>();
+	private static IDatabase readersDb;
+
 	private Libraries() {
 	}
 
@@ -61,6 +79,15 @@ public final class Libraries {
 	 * invalid.
 	 */
 	public static Optional<LibReader> readerOf(String libId) {
+		if (libId == null)
+			return Optional.empty();
+		synchronized (readers) {
+			var cached = readersDb == Database.get()
+					? readers.get(libId)
+					: null;
+			if (cached != null)
+				return Optional.of(cached);
+		}
 		var libDir = Workspace.getLibraryDir();
 		var lib = libDir.getLibrary(libId).orElse(null);
 		return lib != null
@@ -82,6 +109,31 @@ public final class Libraries {
 		if (db == null)
 			return Optional.empty();
 
+		synchronized (readers) {
+			if (readersDb != db) {
+				readers.clear();
+				readersDb = db;
+			}
+			var cached = readers.get(lib.name());
+			if (cached != null)
+				return Optional.of(cached);
+		}
+
+		var reader = createReader(lib, db).orElse(null);
+		if (reader == null)
+			return Optional.empty();
+		synchronized (readers) {
+			if (readersDb != db)
+				return Optional.of(reader);
+			var other = readers.putIfAbsent(lib.name(), reader);
+			return Optional.of(other != null ? other : reader);
+		}
+	}
+
+	/**
+	 * Creates a new reader of the given library that is not cached.
+	 */
+	private static Optional<LibReader> createReader(Library lib, IDatabase db) {
 		var builder = LibReader.of(lib, db)
 				.withSolver(App.getSolver());
 
@@ -99,10 +151,36 @@ public final class Libraries {
 		return Optional.of(builder.create());
 	}
 
+	/**
+	 * Releases the reader of the given library, e.g. when the library was
+	 * removed or its session is not valid anymore. A new reader is created
+	 * when the library is accessed the next time.
+	 */
+	public static void release(String libId) {
+		if (libId == null)
+			return;
+		synchronized (readers) {
+			readers.remove(libId);
+		}
+	}
+
+	/**
+	 * Releases all library readers. This is called when the database is
+	 * closed.
+	 */
+	public static void releaseAll() {
+		synchronized (readers) {
+			readers.clear();
+			readersDb = null;
+		}
+	}
+
 	/**
 	 * Returns the library readers for the currently active database that are
 	 * needed to run a calculation. Returns an empty option if this fails or
-	 * when no libraries with matrices are mounted to that database.
+	 * when no libraries with matrices are mounted to that database. These are
+	 * the shared readers of the cache; see {@link #newReadersForCalculation()}
+	 * for calculations that run concurrently.
 	 */
 	public static Optional<LibReaderRegistry> readersForCalculation() {
 		var libs = forCalculation();
@@ -117,6 +195,25 @@ public final class Libraries {
 				: Optional.of(LibReaderRegistry.of(readers));
 	}
 
+	/**
+	 * Like {@link #readersForCalculation()} but creates new readers that are
+	 * not shared with other callers. A thread that runs calculations
+	 * concurrently to other threads needs to use its own readers.
+	 */
+	public static Optional<LibReaderRegistry> newReadersForCalculation() {
+		var db = Database.get();
+		var libs = forCalculation();
+		if (db == null || libs.isEmpty())
+			return Optional.empty();
+
+		var readers = new ArrayList<LibReader>();
+		libs.get().forEach(lib -> createReader(lib, db).ifPresent(readers::add));
+
+		return readers.isEmpty()
+				? Optional.empty()
+				: Optional.of(LibReaderRegistry.of(readers));
+	}
+
 	public static Optional<Set<Library>> forCalculation() {
 		var db = Database.get();
 		if (db == null)
@@ -201,7 +298,9 @@ public final class Libraries {
 		var lib = readerOf(e.library).orElse(null);
 		if (lib == null)
 			return;
-		fn.accept(db, lib);
+		synchronized (lib) {
+			fn.accept(db, lib);
+		}
 	}
 
 	public static Library importFromFile(File file) {
@@ -4,56 +4,211 @@ import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.IOUtils;
 import org.eclipse.persistence.indirection.IndirectCollection;
 import org.openlca.app.App;
+import org.openlca.app.collaboration.navigation.actions.ModelReferences;
 import org.openlca.app.db.Database;
+import org.openlca.app.preferences.Preferences;
 import org.openlca.app.rcp.RcpActivator;
 import org.openlca.app.rcp.Workspace;
+import org.openlca.app.search.SearchIndex;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.util.Dirs;
+import org.python.core.PyObject;
 import org.python.util.PythonInterpreter;
 import org.slf4j.LoggerFactory;
 import org.zeroturnaround.zip.ZipUtil;
 
-class Jython {
+/**
+ * Executes Python scripts with Jython. Creating an interpreter and executing
+ * the binding imports takes a few seconds. Thus, we keep a pool of
+ * interpreters for which the bindings were already executed. A script run
+ * leases an interpreter from that pool and gets a fresh copy of the global
+ * namespace with the bindings; when the run is finished, the interpreter is
+ * returned to the pool. The size of the pool can be configured via the
+ * preference {@link Preferences#PYTHON_POOL_SIZE}. The interpreters are
+ * closed when the database is closed.
+ */
+public class Jython {
 
 	static AtomicBoolean folderInitialized = new AtomicBoolean(false);
 
+	private static final BlockingQueue<Interpreter> pool =
+			new LinkedBlockingQueue<>();
+	private static final AtomicInteger created = new AtomicInteger(0);
+
+	/**
+	 * Is incremented when the pool is closed so that interpreters which are
+	 * leased at that time are closed when they are returned.
+	 */
+	private static final AtomicInteger generation = new AtomicInteger(0);
+
 	private Jython() {
 	}
 
+	/**
+	 * Fills the interpreter pool in a background job so that the first
+	 * script run does not need to wait for the bindings.
+	 */
+	static void warmUp() {
+		if (created.get() >= poolSize())
+			return;
+		App.run("Initialize Python", () -> {
+			while (true) {
+				var py = create();
+				if (py == null)
+					return;
+				if (py.generation != generation.get()) {
+					dispose(py);
+					return;
+				}
+				pool.offer(py);
+			}
+		});
+	}
+
 	static void exec(String script) {
-		var pyDir = new File(Workspace.root(), "python");
-		if (!folderInitialized.get()) {
-			initFolder(pyDir);
-			System.setProperty("python.path", pyDir.getAbsolutePath());
-			System.setProperty("python.home", pyDir.getAbsolutePath());
-			folderInitialized.set(true);
-		}
+		var py = lease();
+		if (py == null)
+			return;
 		try {
+			py.interpreter.set("db", Database.get());
+			py.interpreter.exec(script);
+		} catch (Exception e) {
+			ErrorReporter.on("failed execute script", e);
+		} finally {
+			release(py);
+			// a script can change any model without the update hooks
+			SearchIndex.invalidate();
+			ModelReferences.invalidate();
+		}
+	}
 
-			// create the interpreter and execute the script
-			try (var py = new PythonInterpreter()) {
-				py.set("log", LoggerFactory.getLogger(Jython.class));
-				py.set("db", Database.get());
-				py.set("direct", new EagerCollector());
+	private static int poolSize() {
+		return Math.max(1, Preferences.getInt(Preferences.PYTHON_POOL_SIZE, 2));
+	}
 
-				// first try to execute the imports
-				if (!execImports(py, "mod_bindings.py")
-						|| !execImports(py, "app_bindings.py"))
-					return;
+	/**
+	 * Closes the idle interpreters of the pool. Interpreters that are
+	 * currently leased are closed when their script run is finished.
+	 */
+	public static void close() {
+		generation.incrementAndGet();
+		Interpreter py;
+		while ((py = pool.poll()) != null) {
+			dispose(py);
+		}
+	}
 
-				py.exec(script);
+	/**
+	 * Takes an idle interpreter from the pool. If there is none and the pool
+	 * is not full yet, a new interpreter is created. Otherwise, it waits until
+	 * another script run returns its interpreter or another creation fails.
+	 * Returns {@code null} when no interpreter could be created; the error is
+	 * then already reported.
+	 */
+	private static Interpreter lease() {
+		try {
+			while (true) {
+				var py = pool.poll();
+				if (py != null)
+					return py;
+				py = create();
+				if (py != null)
+					return py;
+
+				// when nothing is leased or in creation, the creation of
+				// the interpreter failed and there is nothing to wait for
+				if (created.get() == 0)
+					return null;
+				py = pool.poll(500, TimeUnit.MILLISECONDS);
+				if (py != null)
+					return py;
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
 
+	/**
+	 * Resets the global namespace of the given interpreter so that the next
+	 * script run does not see the variables of the previous run and returns
+	 * it to the pool.
+	 */
+	private static void release(Interpreter py) {
+		if (py.generation != generation.get()) {
+			dispose(py);
+			return;
+		}
+		try {
+			py.reset();
+			pool.offer(py);
 		} catch (Exception e) {
-			ErrorReporter.on("failed execute script", e);
+			// a broken interpreter is dropped and replaced on demand
+			LoggerFactory.getLogger(Jython.class)
+					.error("failed to reset Python interpreter", e);
+			dispose(py);
+		}
+	}
+
+	private static void dispose(Interpreter py) {
+		try {
+			py.interpreter.close();
+		} catch (Exception e) {
+			LoggerFactory.getLogger(Jython.class)
+					.warn("failed to close Python interpreter", e);
+		} finally {
+			created.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Creates a new interpreter with executed bindings if the pool is not full
+	 * yet. Returns {@code null} if the pool is full or if the creation failed.
+	 */
+	private static Interpreter create() {
+		int size = poolSize();
+		if (created.getAndUpdate(n -> n < size ? n + 1 : n) >= size)
+			return null;
+		initPython();
+		int gen = generation.get();
+		var py = new PythonInterpreter();
+		try {
+			py.set("log", LoggerFactory.getLogger(Jython.class));
+			py.set("direct", new EagerCollector());
+			if (!execImports(py, "mod_bindings.py")
+					|| !execImports(py, "app_bindings.py")) {
+				py.close();
+				created.decrementAndGet();
+				return null;
+			}
+			return new Interpreter(py, py.getLocals().invoke("copy"), gen);
+		} catch (Exception e) {
+			ErrorReporter.on("failed to create Python interpreter", e);
+			py.close();
+			created.decrementAndGet();
+			return null;
 		}
 	}
 
+	private static void initPython() {
+		if (folderInitialized.get())
+			return;
+		var pyDir = new File(Workspace.root(), "python");
+		initFolder(pyDir);
+		System.setProperty("python.path", pyDir.getAbsolutePath());
+		System.setProperty("python.home", pyDir.getAbsolutePath());
+		folderInitialized.set(true);
+	}
+
 	private static boolean execImports(PythonInterpreter py, String bindings) {
 		String script = null;
 		try (var stream = Jython.class.getResourceAsStream(bindings)) {
@@ -66,6 +221,18 @@ class Jython {
 		}
 	}
 
+	/**
+	 * An interpreter of the pool with a snapshot of its global namespace
+	 * after the bindings were executed.
+	 */
+	private record Interpreter(
+			PythonInterpreter interpreter, PyObject bindings, int generation) {
+
+		void reset() {
+			interpreter.setLocals(bindings.invoke("copy"));
+		}
+	}
+
 	/**
 	 * Extract the Python library in the workspace folder.
 	 */
@@ -0,0 +1,79 @@
+package org.openlca.app.devtools.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.forms.widgets.FormToolkit;
+
+/**
+ * A virtual table for the rows of a query result. The table items are only
+ * created and filled when they become visible, so that large results can be
+ * displayed without creating a widget for each row.
+ */
+class ResultTable {
+
+	private final Table table;
+	private final List<String[]> rows = new ArrayList<>();
+
+	ResultTable(Composite parent, FormToolkit tk) {
+		table = new Table(parent,
+				SWT.VIRTUAL | SWT.BORDER | SWT.MULTI | SWT.FULL_SELECTION);
+		table.setHeaderVisible(true);
+		table.setLinesVisible(true);
+		tk.adapt(table);
+		table.addListener(SWT.SetData, e -> {
+			var item = (TableItem) e.item;
+			int idx = e.index;
+			if (idx < 0 || idx >= rows.size())
+				return;
+			var row = rows.get(idx);
+			for (int i = 0; i < row.length; i++) {
+				item.setText(i, row[i] == null ? "NULL" : row[i]);
+			}
+		});
+	}
+
+	Table table() {
+		return table;
+	}
+
+	/**
+	 * Removes all rows and columns and creates new columns with the given
+	 * names.
+	 */
+	void setColumns(String[] names) {
+		if (table.isDisposed())
+			return;
+		table.setRedraw(false);
+		clear();
+		for (var column : table.getColumns()) {
+			column.dispose();
+		}
+		for (var name : names) {
+			var column = new TableColumn(table, SWT.NONE);
+			column.setText(name);
+			column.setWidth(150);
+		}
+		table.setRedraw(true);
+	}
+
+	void addRows(List<String[]> page) {
+		if (table.isDisposed())
+			return;
+		rows.addAll(page);
+		table.setItemCount(rows.size());
+	}
+
+	void clear() {
+		if (table.isDisposed())
+			return;
+		rows.clear();
+		table.clearAll();
+		table.setItemCount(0);
+	}
+}
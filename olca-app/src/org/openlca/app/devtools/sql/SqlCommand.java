@@ -5,53 +5,127 @@ import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.openlca.app.collaboration.navigation.actions.ModelReferences;
+import org.openlca.app.search.SearchIndex;
 import org.openlca.core.database.IDatabase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Executes a single SQL statement. The rows of a query are not collected in
+ * memory but passed in pages to a {@link Sink}, and at most a given number of
+ * rows is fetched. A running statement can be canceled from another thread.
+ */
 class SqlCommand {
 
-	private Logger log = LoggerFactory.getLogger(getClass());
+	static final int PAGE_SIZE = 500;
 
-	public String exec(String sqlStatement, IDatabase database) {
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase database;
+	private volatile Statement statement;
+	private volatile boolean canceled;
+
+	/**
+	 * Receives the result of a query. The methods are called from the thread
+	 * that executes the command.
+	 */
+	interface Sink {
+
+		void columns(String[] names);
+
+		void rows(List<String[]> page);
+	}
+
+	SqlCommand(IDatabase database) {
+		this.database = database;
+	}
+
+	public String exec(String sqlStatement, int maxRows, Sink sink) {
 		if (sqlStatement == null)
 			return "invalid sql statement";
 		String stmt = sqlStatement.trim().toLowerCase();
 		if (stmt.startsWith("select ") || stmt.startsWith("show "))
-			return runSelect(database, sqlStatement);
+			return runSelect(sqlStatement, maxRows, sink);
 		else
-			return runUpdate(database, sqlStatement);
+			return runUpdate(sqlStatement);
 	}
 
-	private String runSelect(IDatabase database, String query) {
+	/**
+	 * Cancels the execution of this command. Note that the database may not
+	 * support the cancellation of a running statement; in this case we stop
+	 * after the next fetched row.
+	 */
+	void cancel() {
+		canceled = true;
+		var s = statement;
+		if (s == null)
+			return;
+		try {
+			s.cancel();
+		} catch (Exception e) {
+			log.warn("failed to cancel statement", e);
+		}
+	}
+
+	private String runSelect(String query, int maxRows, Sink sink) {
 		log.info("run select statement {}", query);
-		try (Connection con = database.createConnection()) {
-			List<String[]> table = new ArrayList<>();
-			ResultSet result = con.createStatement().executeQuery(query);
-			String[] fields = getFields(result);
-			table.add(fields);
-			while (result.next()) {
-				String[] row = new String[fields.length];
-				table.add(row);
-				for (int i = 0; i < fields.length; i++) {
-					String field = fields[i];
-					Object o = result.getObject(field);
-					if (o != null)
-						row[i] = o.toString();
+		long start = System.nanoTime();
+		try (Connection con = database.createConnection();
+				 Statement stmt = con.createStatement()) {
+			statement = stmt;
+			if (maxRows > 0) {
+				// one more row to see if the limit was reached
+				stmt.setMaxRows(maxRows + 1);
+			}
+			stmt.setFetchSize(PAGE_SIZE);
+			long count = 0;
+			boolean truncated = false;
+			try (ResultSet result = stmt.executeQuery(query)) {
+				int columns = result.getMetaData().getColumnCount();
+				sink.columns(getFields(result.getMetaData()));
+				var page = new ArrayList<String[]>(PAGE_SIZE);
+				while (!canceled && result.next()) {
+					if (maxRows > 0 && count >= maxRows) {
+						truncated = true;
+						break;
+					}
+					var row = new String[columns];
+					for (int i = 0; i < columns; i++) {
+						Object o = result.getObject(i + 1);
+						if (o != null)
+							row[i] = o.toString();
+					}
+					page.add(row);
+					count++;
+					if (page.size() == PAGE_SIZE) {
+						sink.rows(page);
+						page = new ArrayList<>(PAGE_SIZE);
+					}
+				}
+				if (!page.isEmpty()) {
+					sink.rows(page);
 				}
 			}
-			result.close();
-			return new TextTable().format(table);
+			var message = count + " rows fetched in " + millis(start) + " ms";
+			if (truncated)
+				return message + " (row limit reached)";
+			if (canceled)
+				return message + " (canceled)";
+			return message;
 		} catch (Exception e) {
-			return handleException(e);
+			return canceled
+					? "canceled after " + millis(start) + " ms"
+					: handleException(e);
+		} finally {
+			statement = null;
 		}
 	}
 
-	private String[] getFields(ResultSet result) throws Exception {
-		ResultSetMetaData metaData = result.getMetaData();
+	private String[] getFields(ResultSetMetaData metaData) throws Exception {
 		String[] fields = new String[metaData.getColumnCount()];
 		for (int i = 0; i < fields.length; i++) {
 			fields[i] = metaData.getColumnLabel(i + 1);
@@ -59,19 +133,32 @@ class SqlCommand {
 		return fields;
 	}
 
-	private String runUpdate(IDatabase database, String stmt) {
+	private String runUpdate(String stmt) {
 		log.info("run update statement {}", stmt);
-		try (Connection con = database.createConnection()) {
-			int count = con.createStatement().executeUpdate(stmt);
+		long start = System.nanoTime();
+		try (Connection con = database.createConnection();
+				 Statement s = con.createStatement()) {
+			statement = s;
+			int count = s.executeUpdate(stmt);
 			con.commit();
 			log.info("{} rows updated", count);
 			database.getEntityFactory().getCache().evictAll();
-			return count + " rows updated";
+			SearchIndex.invalidate();
+			ModelReferences.invalidate();
+			return count + " rows updated in " + millis(start) + " ms";
 		} catch (Exception e) {
-			return handleException(e);
+			return canceled
+					? "canceled after " + millis(start) + " ms"
+					: handleException(e);
+		} finally {
+			statement = null;
 		}
 	}
 
+	private static long millis(long start) {
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+
 	private String handleException(Exception e) {
 		StringWriter writer = new StringWriter();
 		try (PrintWriter out = new PrintWriter(writer)) {
@@ -11,13 +11,14 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Color;
-import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.editor.FormPage;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
+import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
 import org.openlca.app.devtools.ScriptingEditor;
@@ -61,13 +62,17 @@ public class SqlEditor extends ScriptingEditor {
 
 	public void clearResults() {
 		page.resultText.setText("");
+		page.resultTable.clear();
 	}
 
 	private class Page extends FormPage {
 
 		private Text resultText;
+		private ResultTable resultTable;
 		private StyledText queryText;
+		private Spinner rowLimit;
 		private RunAction runAction;
+		private Action cancelAction;
 
 		public Page() {
 			super(SqlEditor.this, "SqlEditorPage", "SQL Query Browser");
@@ -96,20 +101,32 @@ public class SqlEditor extends ScriptingEditor {
 				setDirty();
 			});
 
+			// the maximum number of rows that are fetched for a query
+			var limitComp = UI.composite(composite, toolkit);
+			UI.gridLayout(limitComp, 2, 10, 0);
+			UI.label(limitComp, toolkit, "Maximum number of rows");
+			rowLimit = UI.spinner(limitComp, toolkit, SWT.BORDER);
+			rowLimit.setValues(10_000, 1, 10_000_000, 0, 1000, 10_000);
+
 			// bind actions
 			runAction = new RunAction();
+			cancelAction = Actions.create(
+				"Cancel execution", Icon.DELETE.descriptor(), runAction::cancel);
+			cancelAction.setEnabled(false);
 			var saveAs = Actions.create(
 				M.SaveAs, Icon.SAVE_AS.descriptor(), () -> getEditor().doSaveAs());
-			Actions.bind(section, runAction, saveAs);
+			Actions.bind(section, runAction, cancelAction, saveAs);
 		}
 
 		private void createResultSection(Composite body, FormToolkit toolkit) {
 			Section section = UI.section(body, toolkit, "Results");
 			UI.gridData(section, true, true);
 			Composite composite = UI.sectionClient(section, toolkit, 1);
-			composite.setLayout(new FillLayout());
 			resultText = UI.text(composite, toolkit,
 					SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL);
+			UI.gridData(resultText, true, false).heightHint = 80;
+			resultTable = new ResultTable(composite, toolkit);
+			UI.gridData(resultTable.table(), true, true);
 		}
 
 		private class RunAction extends Action {
@@ -120,36 +137,85 @@ public class SqlEditor extends ScriptingEditor {
 				setImageDescriptor(Icon.RUN.descriptor());
 			}
 
+			private volatile SqlCommand running;
+			private volatile boolean canceled;
+
 			@Override
 			public void run() {
-				if (Database.get() == null) {
+				var db = Database.get();
+				if (db == null) {
 					MsgBox.error(M.NoDatabaseOpened, M.NeedOpenDatabase);
 					return;
 				}
 				var statements = getStatements();
+				if (statements.isEmpty())
+					return;
+
+				int maxRows = rowLimit.getSelection();
+				var display = resultText.getDisplay();
+				var sink = new SqlCommand.Sink() {
+					@Override
+					public void columns(String[] names) {
+						display.asyncExec(() -> resultTable.setColumns(names));
+					}
+
+					@Override
+					public void rows(List<String[]> page) {
+						display.asyncExec(() -> resultTable.addRows(page));
+					}
+				};
+
+				resultText.setText("Executing ...");
+				resultTable.clear();
+				setEnabled(false);
+				cancelAction.setEnabled(true);
+				canceled = false;
 				var results = new ArrayList<String>();
-				for (String st : statements) {
-					var result = new SqlCommand().exec(st, Database.get());
-					results.add(result);
+				App.run("Execute SQL", () -> {
+					for (String st : statements) {
+						if (canceled)
+							break;
+						var command = new SqlCommand(db);
+						running = command;
+						results.add(command.exec(st, maxRows, sink));
+					}
+					running = null;
+				}, () -> {
+					if (resultText.isDisposed())
+						return;
+					showResults(results);
+					setEnabled(true);
+					cancelAction.setEnabled(false);
+				});
+			}
+
+			void cancel() {
+				canceled = true;
+				var command = running;
+				if (command != null) {
+					command.cancel();
 				}
-				if (results.size() == 1)
+			}
+
+			private void showResults(List<String> results) {
+				if (results.size() == 1) {
 					resultText.setText(results.get(0));
-				else {
-					var buff = new StringBuilder();
-					buff.append("Executed ")
-							.append(results.size())
-							.append(" statements:\n");
-					int i = 1;
-					for (String result : results) {
-						buff.append('\n')
-								.append(i)
-								.append(". result: \n")
-								.append(org.openlca.util.Strings.cut(result, 1500))
-								.append('\n');
-						i++;
-					}
-					resultText.setText(buff.toString());
+					return;
+				}
+				var buff = new StringBuilder();
+				buff.append("Executed ")
+						.append(results.size())
+						.append(" statements:\n");
+				int i = 1;
+				for (String result : results) {
+					buff.append('\n')
+							.append(i)
+							.append(". result: \n")
+							.append(org.openlca.util.Strings.cut(result, 1500))
+							.append('\n');
+					i++;
 				}
+				resultText.setText(buff.toString());
 			}
 
 			private List<String> getStatements() {
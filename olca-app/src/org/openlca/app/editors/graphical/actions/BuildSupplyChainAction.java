@@ -1,5 +1,7 @@
 package org.openlca.app.editors.graphical.actions;
 
+import java.util.HashSet;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.jface.operation.IRunnableWithProgress;
@@ -19,6 +21,8 @@ import org.openlca.util.ProductSystems;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gnu.trove.set.hash.TLongHashSet;
+
 
 public class BuildSupplyChainAction extends BuildAction {
 
@@ -70,6 +74,11 @@ public class BuildSupplyChainAction extends BuildAction {
 		return true;
 	}
 
+	/**
+	 * Completes the supply chains of all selected exchanges in memory and
+	 * writes the product system only once at the end, instead of updating
+	 * the system in the database for every exchange.
+	 */
 	private class Runner implements IRunnableWithProgress {
 
 		private ProductSystem system;
@@ -80,25 +89,44 @@ public class BuildSupplyChainAction extends BuildAction {
 
 		@Override
 		public void run(IProgressMonitor monitor) {
-			monitor.beginTask(M.BuildSupplyChain, IProgressMonitor.UNKNOWN);
+			monitor.beginTask(M.BuildSupplyChain, mapExchangeToProcess.size());
 			var builder = new ProductSystemBuilder(Cache.getMatrixCache(), config);
 			var alreadyLinked = ProductSystems.linkedExchangesOf(
 					graph.getProductSystem());
+
+			// exchanges that were linked by the auto-completion of a
+			// previous exchange
+			var newlyLinked = new TLongHashSet();
+			var completed = new HashSet<TechFlow>();
+			boolean changed = false;
 			for (var exchange : mapExchangeToProcess.keySet()) {
-				if (alreadyLinked.contains(exchange.id))
+				monitor.worked(1);
+				if (alreadyLinked.contains(exchange.id)
+						|| newlyLinked.contains(exchange.id))
 					continue;
 				var process = mapExchangeToProcess.get(exchange);
 				var provider = findProvider(exchange);
 				if (provider == null)
 					continue;
 				var techFlow = TechFlow.of(provider, Descriptor.of(exchange.flow));
-				builder.autoComplete(system, techFlow);
+				if (completed.add(techFlow)) {
+					int offset = system.processLinks.size();
+					builder.autoComplete(system, techFlow);
+					for (int i = offset; i < system.processLinks.size(); i++) {
+						newlyLinked.add(system.processLinks.get(i).exchangeId);
+					}
+				}
 				var link = createLink(exchange, process, provider);
 				system.processLinks.add(link);
 				system.processes.add(provider.id);
-				system = ProductSystemBuilder.update(Database.get(), system);
+				newlyLinked.add(exchange.id);
+				changed = true;
 			}
 
+			if (changed) {
+				monitor.subTask(M.Save);
+				system = ProductSystemBuilder.update(Database.get(), system);
+			}
 			monitor.done();
 		}
 
@@ -16,6 +16,8 @@ import org.openlca.core.model.Process;
 import org.openlca.core.model.ProcessLink;
 import org.openlca.core.model.ProductSystem;
 
+import gnu.trove.map.hash.TLongObjectHashMap;
+
 import static org.eclipse.draw2d.PositionConstants.EAST;
 
 
@@ -35,6 +37,12 @@ public class Graph extends BaseComponent {
 	private final Process referenceProcess;
 	private Node referenceNode;
 
+	/**
+	 * An index of the nodes by the IDs of their descriptors. It is kept in
+	 * sync with the children of the graph.
+	 */
+	private final TLongObjectHashMap<Node> nodeIndex = new TLongObjectHashMap<>();
+
 	public Graph(GraphEditor editor) {
 		this.editor = editor;
 		var system = editor.getProductSystem();
@@ -43,11 +51,72 @@ public class Graph extends BaseComponent {
 	}
 
 	public Node getNode(long id) {
-		for (var node : getNodes()) {
-			if (node.descriptor != null && node.descriptor.id == id)
-				return node;
+		return nodeIndex.get(id);
+	}
+
+	@Override
+	public void addChild(Component child, int index) {
+		index(child);
+		super.addChild(child, index);
+	}
+
+	@Override
+	public void addChildQuietly(Component child) {
+		index(child);
+		super.addChildQuietly(child);
+	}
+
+	@Override
+	public void addChildren(List<Node> nodes) {
+		for (var node : nodes) {
+			index(node);
+			children.add(node);
+			node.setParent(this);
+		}
+		firePropertyChange(CHILDREN_PROP, null, null);
+	}
+
+	@Override
+	public boolean removeChild(Component child) {
+		if (!super.removeChild(child))
+			return false;
+		unindex(child);
+		return true;
+	}
+
+	@Override
+	public boolean removeChildQuietly(Component child) {
+		if (!super.removeChildQuietly(child))
+			return false;
+		unindex(child);
+		return true;
+	}
+
+	private void index(Component child) {
+		if (child instanceof Node node && node.descriptor != null) {
+			nodeIndex.put(node.descriptor.id, node);
+		}
+	}
+
+	private void unindex(Component child) {
+		if (child instanceof Node node && node.descriptor != null) {
+			if (nodeIndex.get(node.descriptor.id) == node) {
+				nodeIndex.remove(node.descriptor.id);
+			}
+			if (node == referenceNode) {
+				referenceNode = null;
+			}
+		}
+	}
+
+	/**
+	 * Updates the node index when the descriptor of a node was replaced.
+	 */
+	void reindex(Node node, long oldId) {
+		if (nodeIndex.get(oldId) == node) {
+			nodeIndex.remove(oldId);
 		}
-		return null;
+		index(node);
 	}
 
 	public GraphLink getLink(ProcessLink processLink) {
@@ -195,9 +195,12 @@ public class GraphFactory {
 		var system = editor.getProductSystem();
 		var referenceProcess = system.referenceProcess;
 
+		// Read the layout information of the nodes once.
+		var infos = getNodeInfos(nodeArray);
+
 		// Create the reference node.
 		if (referenceProcess != null) {
-			var refNodeInfo = getNodeInfo(nodeArray, referenceProcess.refId);
+			var refNodeInfo = infos.get(referenceProcess.refId);
 			var descriptor = getDescriptor(referenceProcess.id);
 			var refNode = createNode(descriptor, refNodeInfo);
 			if (refNode != null) {
@@ -206,14 +209,7 @@ public class GraphFactory {
 		}
 
 		// Create other nodes.
-		for (var elem : nodeArray) {
-			if (!elem.isJsonObject())
-				continue;
-			var obj = elem.getAsJsonObject();
-			var info = GraphFile.toNodeLayoutInfo(obj);
-			if (info == null)
-				continue;
-
+		for (var info : infos.values()) {
 			// The reference should not be created again.
 			if (referenceProcess != null
 					&& Objects.equals(info.id, referenceProcess.refId))
@@ -279,19 +275,23 @@ public class GraphFactory {
 		return graph;
 	}
 
-	private static NodeLayoutInfo getNodeInfo(JsonArray array, String id) {
-		var descriptor = getDescriptor(id);
-		if (descriptor != null) {
-			for (var elem : array) {
-				if (!elem.isJsonObject())
-					continue;
-				var obj = elem.getAsJsonObject();
-				var info = GraphFile.toNodeLayoutInfo(obj);
-				if (Objects.equals(info.id, descriptor.refId))
-					return info;
-			}
+	/**
+	 * Reads the layout information of the nodes from the given array into a
+	 * map with the reference IDs of the nodes as keys. The order of the array
+	 * is preserved; when an ID occurs multiple times, the first one is taken.
+	 */
+	private static Map<String, NodeLayoutInfo> getNodeInfos(JsonArray array) {
+		var infos = new LinkedHashMap<String, NodeLayoutInfo>();
+		for (var elem : array) {
+			if (!elem.isJsonObject())
+				continue;
+			var obj = elem.getAsJsonObject();
+			var info = GraphFile.toNodeLayoutInfo(obj);
+			if (info == null || info.id == null)
+				continue;
+			infos.putIfAbsent(info.id, info);
 		}
-		return null;
+		return infos;
 	}
 
 	public static RootDescriptor getDescriptor(long id) {
@@ -393,7 +393,11 @@ public class Node extends MinMaxComponent {
 	public void setDescriptor(RootDescriptor d) {
 		if (d == null)
 			return;
+		var old = descriptor;
 		descriptor = d;
+		if (old != null && old.id != d.id && getParent() instanceof Graph graph) {
+			graph.reindex(this, old.id);
+		}
 	}
 
 	public ExchangeItem getRefExchangeItem() {
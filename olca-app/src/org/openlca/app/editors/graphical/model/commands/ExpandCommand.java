@@ -11,6 +11,7 @@ import org.openlca.core.model.FlowType;
 import org.openlca.core.model.ProcessLink;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.openlca.app.editors.graphical.model.Node.isInput;
 import static org.openlca.app.editors.graphical.model.Node.isOutput;
@@ -61,7 +62,7 @@ public class ExpandCommand extends Command {
 		var oldPLinks = oldLinks.stream()
 				.map(GraphLink.class::cast)
 				.map(l -> l.processLink)
-				.toList();
+				.collect(Collectors.toSet());
 
 		for (ProcessLink pLink : links) {
 			FlowType type = graph.flows.type(pLink.flowId);
@@ -190,8 +190,7 @@ public class ImpactCategoryEditor extends ModelEditor<ImpactCategory> {
 					return Labels.name(m);
 				if (col != 1 || m.category == null)
 					return null;
-				var category = Cache.getEntityCache()
-					.get(Category.class, m.category);
+				var category = Cache.get(Category.class, m.category);
 				return category == null
 					? null
 					: CategoryPath.getFull(category);
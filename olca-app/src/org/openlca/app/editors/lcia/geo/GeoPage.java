@@ -1,9 +1,13 @@
 package org.openlca.app.editors.lcia.geo;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.widgets.FormToolkit;
@@ -33,6 +37,13 @@ public class GeoPage extends ModelPage<ImpactCategory> {
 	private Text fileText;
 	private Button saveBtn;
 	private Button validationBtn;
+	private Label validationLabel;
+
+	// the state of a running validation
+	private int validationTotal;
+	private int validationChecked;
+	private boolean validationRunning;
+	private final List<Validation.InvalidFeature> invalidFeatures = new ArrayList<>();
 
 	public GeoPage(ImpactCategoryEditor editor) {
 		super(editor, "GeoPage", "Regionalized calculation");
@@ -83,7 +94,75 @@ public class GeoPage extends ModelPage<ImpactCategory> {
 		validationBtn.setImage(Icon.CHECK_TRUE.get());
 		UI.gridData(validationBtn, false, false).widthHint = 80;
 		validationBtn.setEnabled(false);
-		Controls.onSelect(validationBtn, _e -> Validation.run(setup));
+		Controls.onSelect(validationBtn, _e -> {
+			if (!validationRunning) {
+				Validation.run(this);
+			}
+		});
+
+		// validation status
+		UI.filler(comp, tk);
+		validationLabel = UI.label(comp, tk, "");
+		UI.gridData(validationLabel, true, false);
+	}
+
+	void onValidationStarted(int total) {
+		validationTotal = total;
+		validationChecked = 0;
+		validationRunning = true;
+		invalidFeatures.clear();
+		validationBtn.setEnabled(false);
+		updateValidationLabel("Validating");
+	}
+
+	/**
+	 * Called with the number of checked features and the invalid features of
+	 * the last validated chunk.
+	 */
+	void onValidated(int checked, List<Validation.InvalidFeature> invalid) {
+		if (validationLabel.isDisposed())
+			return;
+		validationChecked = checked;
+		if (!invalid.isEmpty()) {
+			invalidFeatures.addAll(invalid);
+			invalidFeatures.sort(Comparator.comparingInt(Validation.InvalidFeature::index));
+		}
+		updateValidationLabel("Validating");
+	}
+
+	void onValidationFinished(Validation.Outcome outcome) {
+		validationRunning = false;
+		if (validationLabel.isDisposed())
+			return;
+		validationBtn.setEnabled(setup != null);
+		updateValidationLabel(switch (outcome) {
+			case FINISHED -> "Validation finished";
+			case CANCELED -> "Validation canceled";
+			case FAILED -> "Validation failed";
+		});
+	}
+
+	private void updateValidationLabel(String prefix) {
+		var text = new StringBuilder(prefix)
+				.append(": ")
+				.append(validationChecked)
+				.append(" of ")
+				.append(validationTotal)
+				.append(" features checked, ")
+				.append(invalidFeatures.size())
+				.append(" invalid");
+		int n = Math.min(invalidFeatures.size(), 10);
+		for (int i = 0; i < n; i++) {
+			var f = invalidFeatures.get(i);
+			text.append(i == 0 ? " (" : ", ")
+					.append('#').append(f.index() + 1)
+					.append(": ").append(f.shape());
+		}
+		if (n > 0) {
+			text.append(invalidFeatures.size() > n ? ", ...)" : ")");
+		}
+		validationLabel.setText(text.toString());
+		validationLabel.getParent().layout();
 	}
 
 	private void onOpenFile() {
@@ -104,7 +183,8 @@ public class GeoPage extends ModelPage<ImpactCategory> {
 		setup = nextSetup;
 		fileText.setText(file.getAbsolutePath());
 		saveBtn.setEnabled(true);
-		validationBtn.setEnabled(true);
+		// a running validation still publishes its state to this page
+		validationBtn.setEnabled(!validationRunning);
 		paramSection.update();
 		flowSection.update();
 	}
@@ -1,8 +1,17 @@
 package org.openlca.app.editors.lcia.geo;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.viewers.ITableLabelProvider;
 import org.eclipse.jface.viewers.LabelProvider;
@@ -10,11 +19,10 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Shell;
-import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.forms.FormDialog;
 import org.eclipse.ui.forms.IManagedForm;
-import org.eclipse.ui.progress.UIJob;
 import org.openlca.app.App;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.Question;
 import org.openlca.app.util.UI;
@@ -22,14 +30,24 @@ import org.openlca.app.viewers.tables.Tables;
 import org.openlca.geo.Shape;
 import org.openlca.geo.calc.FeatureValidation;
 import org.openlca.geo.calc.FeatureValidation.Stats;
+import org.openlca.geo.geojson.Feature;
+import org.openlca.geo.geojson.FeatureCollection;
 import org.openlca.geo.lcia.GeoFactorSetup;
 
+/**
+ * Validates the features of a setup in a background job. The features are
+ * validated in parallel chunks; the progress and the invalid features are
+ * published to the page while the job is running.
+ */
 class Validation {
 
+	private static final int CHUNK_SIZE = 250;
+
 	private Validation() {
 	}
 
-	static void run(GeoFactorSetup setup) {
+	static void run(GeoPage page) {
+		var setup = page.setup;
 		if (setup == null
 				|| setup.features == null
 				|| setup.features.isEmpty()) {
@@ -38,47 +56,206 @@ class Validation {
 			return;
 		}
 
-		// schedule a validation job
-		var validation = FeatureValidation.of(setup.features);
-		var job = new UIJob("Validate geometries") {
+		var features = new ArrayList<>(setup.features.features);
+		var display = UI.shell().getDisplay();
+		page.onValidationStarted(features.size());
+		var job = new Job("Validate geometries") {
 			@Override
-			public IStatus runInUIThread(IProgressMonitor monitor) {
-				monitor.beginTask("Validate geometries", validation.count());
-				validation.onValidated((count) -> {
-					monitor.worked(count);
-					if (monitor.isCanceled()) {
-						validation.cancel();
-					}
-				});
-				validation.run();
-				monitor.done();
-				StatsDialog.open(setup, validation);
+			protected IStatus run(IProgressMonitor monitor) {
+				ValidationStats stats;
+				try {
+					stats = validate(features, monitor, (checked, invalid) ->
+							display.asyncExec(() -> page.onValidated(checked, invalid)));
+				} catch (Exception e) {
+					ErrorReporter.on("Failed to validate geometries", e);
+					display.asyncExec(() -> page.onValidationFinished(Outcome.FAILED));
+					return Status.CANCEL_STATUS;
+				}
+				var outcome = stats == null
+						? Outcome.CANCELED
+						: Outcome.FINISHED;
+				display.asyncExec(() -> page.onValidationFinished(outcome));
+				if (stats == null)
+					return Status.CANCEL_STATUS;
+				StatsDialog.open(setup, stats);
 				return Status.OK_STATUS;
 			}
 		};
-		PlatformUI.getWorkbench()
-				.getProgressService()
-				.showInDialog(UI.shell(), job);
+		job.setUser(true);
 		job.schedule();
 	}
 
+	/**
+	 * Validates the given features and returns the statistics, or
+	 * {@code null} when the validation was canceled. After each chunk, the
+	 * number of checked features and the invalid features of that chunk are
+	 * passed to the given listener. Throws an exception when the validation
+	 * of a chunk failed.
+	 */
+	private static ValidationStats validate(
+			List<Feature> features, IProgressMonitor monitor,
+			BiConsumer<Integer, List<InvalidFeature>> listener) throws Exception {
+		monitor.beginTask("Validate geometries", features.size());
+		var canceled = new AtomicBoolean(false);
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		var pool = Executors.newFixedThreadPool(threads);
+		try {
+			var service = new ExecutorCompletionService<ChunkResult>(pool);
+			int chunks = 0;
+			for (int start = 0; start < features.size(); start += CHUNK_SIZE) {
+				int offset = start;
+				int end = Math.min(start + CHUNK_SIZE, features.size());
+				service.submit(() -> validateChunk(
+						features.subList(offset, end), offset, canceled));
+				chunks++;
+			}
+
+			var stats = new ValidationStats();
+			int checked = 0;
+			for (int i = 0; i < chunks; i++) {
+				var next = service.poll(200, TimeUnit.MILLISECONDS);
+				while (next == null) {
+					if (monitor.isCanceled()) {
+						canceled.set(true);
+						return null;
+					}
+					next = service.poll(200, TimeUnit.MILLISECONDS);
+				}
+				var chunk = next.get();
+				stats.add(chunk.stats);
+				checked += chunk.count;
+				monitor.worked(chunk.count);
+				listener.accept(checked, chunk.invalid);
+				if (monitor.isCanceled()) {
+					canceled.set(true);
+					return null;
+				}
+			}
+			return stats;
+		} catch (Exception e) {
+			canceled.set(true);
+			throw e;
+		} finally {
+			pool.shutdownNow();
+			monitor.done();
+		}
+	}
+
+	private static ChunkResult validateChunk(
+			List<Feature> features, int offset, AtomicBoolean canceled) {
+		var validation = validationOf(features, canceled);
+		var stats = new ValidationStats();
+		var invalid = new ArrayList<InvalidFeature>();
+		if (canceled.get())
+			return new ChunkResult(features.size(), stats, invalid);
+		var chunkStats = validation.stats();
+		stats.add(chunkStats);
+
+		// to report the single invalid features, we validate the features
+		// of a chunk with invalid features again one by one
+		if (chunkStats.totalInvalid() > 0) {
+			for (int i = 0; i < features.size(); i++) {
+				if (canceled.get())
+					break;
+				var single = validationOf(List.of(features.get(i)), canceled);
+				var singleStats = single.stats();
+				if (singleStats.totalInvalid() == 0)
+					continue;
+				for (var shape : Shape.values()) {
+					if (singleStats.invalidCountOf(shape) > 0) {
+						invalid.add(new InvalidFeature(offset + i, shape));
+					}
+				}
+			}
+		}
+		return new ChunkResult(features.size(), stats, invalid);
+	}
+
+	private static FeatureValidation validationOf(
+			List<Feature> features, AtomicBoolean canceled) {
+		var coll = new FeatureCollection();
+		coll.features.addAll(features);
+		var validation = FeatureValidation.of(coll);
+		validation.onValidated(count -> {
+			if (canceled.get()) {
+				validation.cancel();
+			}
+		});
+		validation.run();
+		return validation;
+	}
+
+	/**
+	 * The outcome of a validation run.
+	 */
+	enum Outcome {
+		FINISHED, CANCELED, FAILED
+	}
+
+	/**
+	 * An invalid feature with its position in the setup.
+	 */
+	record InvalidFeature(int index, Shape shape) {
+	}
+
+	private record ChunkResult(
+			int count, ValidationStats stats, List<InvalidFeature> invalid) {
+	}
+
+	/**
+	 * The merged validation statistics of the chunks.
+	 */
+	private static class ValidationStats {
+
+		private final int[] valid = new int[Shape.values().length];
+		private final int[] invalid = new int[Shape.values().length];
+
+		void add(Stats stats) {
+			for (var shape : Shape.values()) {
+				valid[shape.ordinal()] += stats.validCountOf(shape);
+				invalid[shape.ordinal()] += stats.invalidCountOf(shape);
+			}
+		}
+
+		void add(ValidationStats stats) {
+			for (int i = 0; i < valid.length; i++) {
+				valid[i] += stats.valid[i];
+				invalid[i] += stats.invalid[i];
+			}
+		}
+
+		int validCountOf(Shape shape) {
+			return valid[shape.ordinal()];
+		}
+
+		int invalidCountOf(Shape shape) {
+			return invalid[shape.ordinal()];
+		}
+
+		int totalInvalid() {
+			int sum = 0;
+			for (int i : invalid) {
+				sum += i;
+			}
+			return sum;
+		}
+	}
+
 	private static class StatsDialog extends FormDialog {
 
 		private final GeoFactorSetup setup;
-		private final Stats stats;
+		private final ValidationStats stats;
 
-		private StatsDialog(GeoFactorSetup setup, Stats stats) {
+		private StatsDialog(GeoFactorSetup setup, ValidationStats stats) {
 			super(UI.shell());
 			this.setup = setup;
 			this.stats = stats;
 		}
 
-		static void open(GeoFactorSetup setup, FeatureValidation validation) {
-			if (validation.wasCanceled())
-				return;
+		static void open(GeoFactorSetup setup, ValidationStats stats) {
 			App.runInUI(
 					"Show validation statistics",
-					() -> new StatsDialog(setup, validation.stats()).open());
+					() -> new StatsDialog(setup, stats).open());
 		}
 
 		@Override
@@ -136,9 +313,9 @@ class Validation {
 		private static class StatsLabel extends LabelProvider
 				implements ITableLabelProvider {
 
-			private final Stats stats;
+			private final ValidationStats stats;
 
-			private StatsLabel(Stats stats) {
+			private StatsLabel(ValidationStats stats) {
 				this.stats = stats;
 			}
 
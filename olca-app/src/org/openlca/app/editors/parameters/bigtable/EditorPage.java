@@ -23,13 +23,18 @@ import org.openlca.app.viewers.Viewers;
 import org.openlca.app.viewers.tables.TableClipboard;
 import org.openlca.app.viewers.tables.Tables;
 import org.openlca.core.model.ParameterScope;
-import org.openlca.expressions.FormulaInterpreter;
-import org.openlca.expressions.Scope;
 import org.openlca.util.Strings;
 
 class EditorPage extends FormPage {
 
+	/**
+	 * The delay in milliseconds after the last key stroke in the filter text
+	 * before the filter is applied.
+	 */
+	private static final int FILTER_DELAY = 300;
+
 	private final List<Param> params = new ArrayList<>();
+	private ParamGraph graph;
 	private TableViewer table;
 	private Text filter;
 	private FilterCombo filterCombo;
@@ -51,6 +56,8 @@ class EditorPage extends FormPage {
 		filterCombo = FilterCombo.create(filterComp, tk);
 
 		Runnable doFilter = () -> {
+			if (filter.isDisposed() || table.getTable().isDisposed())
+				return;
 			String t = filter.getText();
 			if (Strings.nullOrEmpty(t)
 				&& filterCombo.type != FilterCombo.ERRORS) {
@@ -62,7 +69,12 @@ class EditorPage extends FormPage {
 				table.setInput(filtered);
 			}
 		};
-		filter.addModifyListener(e -> doFilter.run());
+		filter.addModifyListener(e -> {
+			// restart the timer of a pending filter run
+			var display = filter.getDisplay();
+			display.timerExec(-1, doFilter);
+			display.timerExec(FILTER_DELAY, doFilter);
+		});
 		filterCombo.onChange = doFilter;
 
 		table = Tables.createViewer(body,
@@ -83,7 +95,10 @@ class EditorPage extends FormPage {
 		mform.reflow(true);
 		App.runWithProgress(
 			"Loading parameters ...",
-			() -> Param.fetchAll(Database.get(), params),
+			() -> {
+				Param.fetchAll(Database.get(), params);
+				graph = ParamGraph.of(params);
+			},
 			() -> table.setInput(params));
 	}
 
@@ -132,51 +147,32 @@ class EditorPage extends FormPage {
 	}
 
 	private void evaluateFormulas() {
-		var fi = buildInterpreter();
-		for (var param : params) {
-			var p = param.parameter;
-			if (p.isInputParameter) {
-				param.evalError = false;
-				continue;
-			}
-			var scope = param.isGlobal()
-				? fi.getGlobalScope()
-				: fi.getScopeOrGlobal(param.ownerId());
-			try {
-				p.value = scope.eval(p.formula);
-				param.evalError = false;
-			} catch (Exception e) {
-				param.evalError = true;
-			}
-		}
-	}
-
-	/**
-	 * Bind the parameter values and formulas to the respective scopes of a
-	 * formula interpreter.
-	 */
-	FormulaInterpreter buildInterpreter() {
-		var fi = new FormulaInterpreter();
-		for (var param : params) {
-			Scope scope = param.isGlobal()
-				? fi.getGlobalScope()
-				: fi.getOrCreate(param.ownerId());
-			var p = param.parameter;
-			if (p.isInputParameter) {
-				scope.bind(p.name, p.value);
-			} else {
-				scope.bind(p.name, p.formula);
-			}
+		if (graph != null) {
+			graph.evaluateAll();
 		}
-		return fi;
 	}
 
 	private void onEdit() {
 		Param param = Viewers.getFirstSelected(table);
-		if (param == null || param.parameter == null)
+		if (param == null || param.parameter == null || graph == null)
 			return;
-		if (ValueEditor.edit(this, param)) {
-			table.refresh();
-		}
+		if (!ValueEditor.edit(graph, param))
+			return;
+
+		// only the parameters that depend on the changed parameter
+		// need to be evaluated again
+		param.index();
+		graph.update(param);
+		var ref = new Object() {
+			List<Param> evaluated;
+		};
+		App.runWithProgress(
+			M.EvaluateAllFormulas,
+			() -> ref.evaluated = graph.evaluateDependents(param),
+			() -> {
+				if (ref.evaluated != null && !table.getTable().isDisposed()) {
+					table.update(ref.evaluated.toArray(), null);
+				}
+			});
 	}
 }
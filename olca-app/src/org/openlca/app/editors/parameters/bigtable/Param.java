@@ -33,6 +33,14 @@ class Param implements Comparable<Param> {
 
 	boolean evalError;
 
+	/**
+	 * The lower case texts of the filterable columns; see {@link #index()}.
+	 */
+	private String nameKey = "";
+	private String scopeKey = "";
+	private String formulaKey = "";
+	private String descriptionKey = "";
+
 	private Param(Parameter p) {
 		this(p, null);
 	}
@@ -87,9 +95,36 @@ class Param implements Comparable<Param> {
 			params.add(new Param(p, owner));
 		});
 
+		for (var param : params) {
+			param.index();
+		}
 		Collections.sort(params);
 	}
 
+	/**
+	 * Updates the lower case texts that are used for filtering the table, so
+	 * that they do not need to be created for every filter run. This needs to
+	 * be called again when the parameter is changed.
+	 */
+	void index() {
+		var p = parameter;
+		nameKey = p != null && p.name != null
+			? p.name.toLowerCase()
+			: "";
+		var scope = owner != null
+			? Labels.name(owner)
+			: M.GlobalParameter;
+		scopeKey = scope != null
+			? scope.toLowerCase()
+			: "";
+		formulaKey = p != null && p.formula != null
+			? p.formula.toLowerCase()
+			: "";
+		descriptionKey = p != null && p.description != null
+			? p.description.toLowerCase()
+			: "";
+	}
+
 	@Override
 	public int compareTo(Param other) {
 		int c = Strings.compare(
@@ -122,36 +157,22 @@ class Param implements Comparable<Param> {
 			return true;
 
 		if (type == FilterCombo.ALL || type == FilterCombo.NAMES) {
-			if (parameter.name != null) {
-				String n = parameter.name.toLowerCase();
-				if (n.contains(f))
-					return true;
-			}
+			if (nameKey.contains(f))
+				return true;
 		}
 
 		if (type == FilterCombo.ALL || type == FilterCombo.SCOPES) {
-			String scope = owner != null
-				? Labels.name(owner)
-				: M.GlobalParameter;
-			scope = scope == null ? "" : scope.toLowerCase();
-			if (scope.contains(f))
+			if (scopeKey.contains(f))
 				return true;
 		}
 
 		if (type == FilterCombo.ALL || type == FilterCombo.FORMULAS) {
-			if (parameter.formula != null) {
-				String formula = parameter.formula.toLowerCase();
-				if (formula.contains(f)) {
-					return true;
-				}
-			}
+			if (formulaKey.contains(f))
+				return true;
 		}
 
 		if (type == FilterCombo.ALL || type == FilterCombo.DESCRIPTIONS) {
-			if (parameter.description != null) {
-				String d = parameter.description.toLowerCase();
-				return d.contains(f);
-			}
+			return descriptionKey.contains(f);
 		}
 
 		return false;
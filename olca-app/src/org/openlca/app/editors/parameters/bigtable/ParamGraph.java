@@ -0,0 +1,268 @@
+package org.openlca.app.editors.parameters.bigtable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openlca.expressions.FormulaInterpreter;
+import org.openlca.formula.Formulas;
+import org.openlca.util.Strings;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+/**
+ * The dependency graph of the parameters in the table. A calculated parameter
+ * depends on the parameters that are used as variables in its formula. Like
+ * in the formula interpreter, the variables of a local parameter are first
+ * resolved against the parameters of the same owner and then against the
+ * global parameters.
+ * <p>
+ * A formula is evaluated with the current values of its direct dependencies
+ * which are evaluated before. Thus, after a change only the parameters that
+ * (transitively) depend on the changed parameter need to be evaluated again.
+ * Parameters of the same level in the graph do not depend on each other and
+ * are evaluated in parallel.
+ */
+class ParamGraph {
+
+	/**
+	 * The minimum number of parameters in a level of the graph for which the
+	 * evaluation is done in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 500;
+
+	private final List<Param> params;
+	private final Map<String, Param> globals = new HashMap<>();
+	private final TLongObjectHashMap<Map<String, Param>> locals =
+		new TLongObjectHashMap<>();
+
+	private final Map<Param, List<Param>> dependencies = new HashMap<>();
+	private final Map<Param, List<Param>> dependents = new HashMap<>();
+
+	private ParamGraph(List<Param> params) {
+		this.params = params;
+	}
+
+	static ParamGraph of(List<Param> params) {
+		var graph = new ParamGraph(params);
+		for (var param : params) {
+			var p = param.parameter;
+			if (p == null || p.name == null)
+				continue;
+			var key = p.name.trim().toLowerCase();
+			if (param.isGlobal()) {
+				graph.globals.put(key, param);
+				continue;
+			}
+			var scope = graph.locals.get(param.ownerId());
+			if (scope == null) {
+				scope = new HashMap<>();
+				graph.locals.put(param.ownerId(), scope);
+			}
+			scope.put(key, param);
+		}
+		for (var param : params) {
+			graph.link(param);
+		}
+		return graph;
+	}
+
+	/**
+	 * Updates the dependencies of the given parameter. This needs to be called
+	 * when the formula of the parameter was changed.
+	 */
+	void update(Param param) {
+		var old = dependencies.remove(param);
+		if (old != null) {
+			for (var dep : old) {
+				var list = dependents.get(dep);
+				if (list != null) {
+					list.remove(param);
+				}
+			}
+		}
+		link(param);
+	}
+
+	private void link(Param param) {
+		var p = param.parameter;
+		if (p == null || p.isInputParameter)
+			return;
+		var deps = resolve(param, p.formula);
+		if (deps.isEmpty())
+			return;
+		dependencies.put(param, deps);
+		for (var dep : deps) {
+			dependents.computeIfAbsent(dep, k -> new ArrayList<>())
+				.add(param);
+		}
+	}
+
+	/**
+	 * Returns the parameters that are used as variables in the given formula
+	 * in the scope of the given parameter.
+	 */
+	private List<Param> resolve(Param param, String formula) {
+		if (Strings.nullOrEmpty(formula))
+			return Collections.emptyList();
+		var deps = new LinkedHashSet<Param>();
+		try {
+			for (var variable : Formulas.getVariables(formula)) {
+				var dep = lookup(param, variable);
+				if (dep != null && dep != param) {
+					deps.add(dep);
+				}
+			}
+		} catch (Exception e) {
+			// syntax errors are reported when the formula is evaluated
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(deps);
+	}
+
+	private Param lookup(Param param, String variable) {
+		if (variable == null)
+			return null;
+		var key = variable.trim().toLowerCase();
+		if (!param.isGlobal()) {
+			var scope = locals.get(param.ownerId());
+			if (scope != null) {
+				var local = scope.get(key);
+				if (local != null)
+					return local;
+			}
+		}
+		return globals.get(key);
+	}
+
+	/**
+	 * Evaluates the given formula in the scope of the given parameter with the
+	 * current values of the parameters. Throws an exception if the formula
+	 * is not valid.
+	 */
+	double eval(Param param, String formula) throws Exception {
+		return eval(formula, resolve(param, formula));
+	}
+
+	private static double eval(String formula, List<Param> deps)
+		throws Exception {
+		var scope = new FormulaInterpreter().getGlobalScope();
+		for (var dep : deps) {
+			scope.bind(dep.parameter.name, dep.parameter.value);
+		}
+		return scope.eval(formula);
+	}
+
+	/**
+	 * Evaluates all parameters of the table.
+	 */
+	void evaluateAll() {
+		evaluate(new LinkedHashSet<>(params));
+	}
+
+	/**
+	 * Evaluates the given parameter and all parameters that depend on it and
+	 * returns the evaluated parameters.
+	 */
+	List<Param> evaluateDependents(Param param) {
+		var affected = new LinkedHashSet<Param>();
+		var queue = new ArrayDeque<Param>();
+		queue.add(param);
+		while (!queue.isEmpty()) {
+			var next = queue.poll();
+			if (!affected.add(next))
+				continue;
+			var list = dependents.get(next);
+			if (list != null) {
+				queue.addAll(list);
+			}
+		}
+		evaluate(affected);
+		return new ArrayList<>(affected);
+	}
+
+	/**
+	 * Evaluates the given parameters level by level: a parameter is evaluated
+	 * when all of its dependencies in the given set were evaluated. The
+	 * parameters that are left are part of a cycle and cannot be evaluated.
+	 */
+	private void evaluate(Set<Param> set) {
+		var pending = new HashMap<Param, Integer>();
+		var level = new ArrayList<Param>();
+		for (var param : set) {
+			int n = 0;
+			for (var dep : dependenciesOf(param)) {
+				if (set.contains(dep)) {
+					n++;
+				}
+			}
+			if (n == 0) {
+				level.add(param);
+			} else {
+				pending.put(param, n);
+			}
+		}
+
+		while (!level.isEmpty()) {
+			var stream = level.size() >= PARALLEL_THRESHOLD
+				? level.parallelStream()
+				: level.stream();
+			stream.forEach(this::evaluate);
+			var next = new ArrayList<Param>();
+			for (var param : level) {
+				var list = dependents.get(param);
+				if (list == null)
+					continue;
+				for (var dependent : list) {
+					var n = pending.get(dependent);
+					if (n == null)
+						continue;
+					if (n == 1) {
+						pending.remove(dependent);
+						next.add(dependent);
+					} else {
+						pending.put(dependent, n - 1);
+					}
+				}
+			}
+			level = next;
+		}
+
+		for (var param : pending.keySet()) {
+			param.evalError = true;
+		}
+	}
+
+	private void evaluate(Param param) {
+		var p = param.parameter;
+		if (p.isInputParameter) {
+			param.evalError = false;
+			return;
+		}
+		var deps = dependenciesOf(param);
+		for (var dep : deps) {
+			if (dep.evalError) {
+				param.evalError = true;
+				return;
+			}
+		}
+		try {
+			p.value = eval(p.formula, deps);
+			param.evalError = false;
+		} catch (Exception e) {
+			param.evalError = true;
+		}
+	}
+
+	private List<Param> dependenciesOf(Param param) {
+		var deps = dependencies.get(param);
+		return deps != null
+			? deps
+			: Collections.emptyList();
+	}
+}
@@ -27,30 +27,29 @@ import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.Uncertainty;
 import org.openlca.core.model.UncertaintyType;
 import org.openlca.core.model.Version;
-import org.openlca.expressions.FormulaInterpreter;
 import org.openlca.util.Strings;
 
 class ValueEditor {
 
 	private final IDatabase db;
-	private final EditorPage page;
+	private final ParamGraph graph;
 	private final Param param;
 
 	private ValueEditor(
-		IDatabase db, EditorPage page, Param param) {
+		IDatabase db, ParamGraph graph, Param param) {
 		this.db = db;
-		this.page = page;
+		this.graph = graph;
 		this.param = param;
 	}
 
-	static boolean edit(EditorPage page, Param param) {
+	static boolean edit(ParamGraph graph, Param param) {
 		var db = Database.get();
 		if (db == null
-			|| page == null
+			|| graph == null
 			|| param == null
 			|| param.parameter == null)
 			return false;
-		return new ValueEditor(db, page, param).edit();
+		return new ValueEditor(db, graph, param).edit();
 	}
 
 	private boolean edit() {
@@ -61,8 +60,7 @@ class ValueEditor {
 			return false;
 
 		// open the dialog and set new parameter values
-		var interpreter = page.buildInterpreter();
-		var dialog = new Dialog(param, interpreter);
+		var dialog = new Dialog(param, graph);
 		if (dialog.open() != Window.OK)
 			return false;
 
@@ -137,16 +135,16 @@ class ValueEditor {
 	private static class Dialog extends FormDialog {
 
 		private final Param param;
-		private final FormulaInterpreter interpreter;
+		private final ParamGraph graph;
 
 		private double value;
 		private String formula;
 		private Uncertainty uncertainty;
 
-		Dialog(Param param, FormulaInterpreter interpreter) {
+		Dialog(Param param, ParamGraph graph) {
 			super(UI.shell());
 			this.param = param;
-			this.interpreter = interpreter;
+			this.graph = graph;
 			var p = param.parameter;
 			if (p.isInputParameter) {
 				value = p.value;
@@ -230,12 +228,8 @@ class ValueEditor {
 						onError.accept(textVal + " " + M.IsNotValidNumber);
 					}
 				} else {
-
-					var scope = param.isGlobal()
-						? interpreter.getGlobalScope()
-						: interpreter.getScopeOrGlobal(param.ownerId());
 					try {
-						scope.eval(textVal);
+						graph.eval(param, textVal);
 						formula = textVal;
 						onError.accept(null);
 					} catch (Exception e) {
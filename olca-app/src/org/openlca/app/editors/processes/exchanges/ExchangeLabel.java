@@ -52,7 +52,7 @@ class ExchangeLabel extends LabelProvider implements ITableLabelProvider,
 			case 7 -> {
 				if (e.defaultProviderId == 0)
 					yield null;
-				var d = Cache.getEntityCache().get(
+				var d = Cache.get(
 						ProcessDescriptor.class, e.defaultProviderId);
 				yield d != null ? Images.get(d) : null;
 			}
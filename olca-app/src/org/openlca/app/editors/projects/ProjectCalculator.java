@@ -0,0 +1,137 @@
+package org.openlca.app.editors.projects;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openlca.app.App;
+import org.openlca.app.db.Libraries;
+import org.openlca.app.preferences.Preferences;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.library.reader.LibReaderRegistry;
+import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.Project;
+import org.openlca.core.model.ProjectVariant;
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.ProjectResult;
+
+/**
+ * Calculates the variants of a project in parallel. The variants are
+ * independent of each other: each variant gets its own calculation setup and
+ * calculator, so the results are the same as in a sequential calculation.
+ * The number of threads is taken from the preference
+ * {@link Preferences#PROJECT_CALCULATION_THREADS}. The library readers are
+ * not thread-safe; thus, each thread of the pool creates its own readers.
+ */
+class ProjectCalculator {
+
+	private final Project project;
+	private final IDatabase db;
+
+	private ProjectCalculator(Project project, IDatabase db) {
+		this.project = project;
+		this.db = db;
+	}
+
+	static ProjectResult calculate(Project project, IDatabase db) {
+		return new ProjectCalculator(project, db).run();
+	}
+
+	private ProjectResult run() {
+
+		// the setups are created in this thread before the calculations
+		// start, so that the shared model objects of the project (product
+		// systems, impact method, etc.) are not loaded concurrently
+		var variants = new ArrayList<ProjectVariant>();
+		var setups = new ArrayList<CalculationSetup>();
+		for (var variant : project.variants) {
+			if (variant.isDisabled || variant.productSystem == null)
+				continue;
+			variants.add(variant);
+			setups.add(setupOf(variant));
+		}
+
+		var results = variants.size() < 2 || threads() < 2
+				? sequential(setups)
+				: parallel(setups);
+		var result = new ProjectResult();
+		for (int i = 0; i < variants.size(); i++) {
+			result.addResult(variants.get(i), results.get(i));
+		}
+		return result;
+	}
+
+	private CalculationSetup setupOf(ProjectVariant variant) {
+		return CalculationSetup.of(variant.productSystem)
+				.withUnit(variant.unit)
+				.withFlowPropertyFactor(variant.flowPropertyFactor)
+				.withAmount(variant.amount)
+				.withAllocation(variant.allocationMethod)
+				.withParameters(variant.parameterRedefs)
+				.withImpactMethod(project.impactMethod)
+				.withNwSet(project.nwSet)
+				.withCosts(project.isWithCosts)
+				.withRegionalization(project.isWithRegionalization);
+	}
+
+	private List<LcaResult> sequential(List<CalculationSetup> setups) {
+		var libs = Libraries.readersForCalculation();
+		var results = new ArrayList<LcaResult>(setups.size());
+		for (var setup : setups) {
+			results.add(calculate(setup, libs));
+		}
+		return results;
+	}
+
+	private List<LcaResult> parallel(List<CalculationSetup> setups) {
+		int threads = Math.min(threads(), setups.size());
+		var pool = Executors.newFixedThreadPool(threads);
+		var libs = ThreadLocal.withInitial(Libraries::newReadersForCalculation);
+		try {
+			var futures = new ArrayList<Future<LcaResult>>(setups.size());
+			for (var setup : setups) {
+				futures.add(pool.submit(() -> calculate(setup, libs.get())));
+			}
+			var results = new ArrayList<LcaResult>(setups.size());
+			for (var future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (ExecutionException e) {
+			// rethrow the original error so that it can be handled by the
+			// caller like in a sequential calculation
+			var cause = e.getCause();
+			if (cause instanceof RuntimeException re)
+				throw re;
+			if (cause instanceof Error err)
+				throw err;
+			throw new RuntimeException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("project calculation interrupted", e);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private LcaResult calculate(
+			CalculationSetup setup, Optional<LibReaderRegistry> libs) {
+		var calc = new SystemCalculator(db)
+				.withSolver(App.getSolver());
+		libs.ifPresent(calc::withLibraries);
+		return calc.calculateLazy(setup);
+	}
+
+	private int threads() {
+		return Math.max(1, Preferences.getInt(
+				Preferences.PROJECT_CALCULATION_THREADS, defaultThreads()));
+	}
+
+	private static int defaultThreads() {
+		return Math.min(4, Runtime.getRuntime().availableProcessors());
+	}
+}
@@ -52,7 +52,7 @@ public class ProjectEditorToolBar extends EditorActionBarContributor {
 		};
 		Runnable calculation = () -> {
 			try {
-				ref.result = ProjectResult.calculate(project, db);
+				ref.result = ProjectCalculator.calculate(project, db);
 			} catch (OutOfMemoryError e) {
 				MsgBox.error(M.OutOfMemory, M.CouldNotAllocateMemoryError);
 			} catch (MathIllegalArgumentException e) {
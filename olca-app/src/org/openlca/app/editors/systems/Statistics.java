@@ -1,12 +1,7 @@
 package org.openlca.app.editors.systems;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.Queue;
 
 import org.openlca.app.db.Database;
 import org.openlca.app.util.ErrorReporter;
@@ -14,7 +9,6 @@ import org.openlca.core.database.EntityCache;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.NativeSql;
 import org.openlca.core.matrix.cache.ProcessTable;
-import org.openlca.core.matrix.index.LongPair;
 import org.openlca.core.model.ProcessLink;
 import org.openlca.core.model.ProductSystem;
 import org.openlca.core.model.descriptors.Descriptor;
@@ -25,10 +19,10 @@ import org.openlca.core.model.descriptors.RootDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-
+import gnu.trove.list.array.TLongArrayList;
 import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
 
 class Statistics {
 
@@ -67,55 +61,77 @@ class Statistics {
 		processCount = system.processes.size();
 		linkCount = system.processLinks.size();
 		refProcess = Descriptor.of(system.referenceProcess);
-		HashSet<LongPair> processProducts = new HashSet<>();
-		Multimap<Long, Long> inEdges = HashMultimap.create();
-		Multimap<Long, Long> outEdges = HashMultimap.create();
+		var processProducts = new TLongObjectHashMap<TLongHashSet>();
+		var inEdges = new TLongObjectHashMap<TLongHashSet>();
+		var outEdges = new TLongObjectHashMap<TLongHashSet>();
 		for (var link : system.processLinks) {
-			processProducts.add(LongPair.of(link.providerId, link.flowId));
-			inEdges.put(link.processId, link.providerId);
-			outEdges.put(link.providerId, link.processId);
+			put(processProducts, link.providerId, link.flowId);
+			put(inEdges, link.processId, link.providerId);
+			put(outEdges, link.providerId, link.processId);
+		}
+		techMatrixSize = 0;
+		for (var flows : processProducts.valueCollection()) {
+			techMatrixSize += flows.size();
 		}
-		techMatrixSize = processProducts.size();
 		connectedGraph = isConnectedGraph(inEdges);
 		topInDegrees = calculateMostLinked(inEdges, 5);
 		topOutDegrees = calculateMostLinked(outEdges, 5);
 		collectProviderInfos(system, Database.get());
 	}
 
+	/**
+	 * Adds the value to the set of the given key (a multimap of primitive
+	 * longs).
+	 */
+	private static void put(
+		TLongObjectHashMap<TLongHashSet> map, long key, long value) {
+		var set = map.get(key);
+		if (set == null) {
+			set = new TLongHashSet();
+			map.put(key, set);
+		}
+		set.add(value);
+	}
+
 	/**
 	 * The product system graph is connected if we can visit every process in the
 	 * product system traversing the graph starting from the reference process and
 	 * following the incoming process links.
 	 */
-	private boolean isConnectedGraph(Multimap<Long, Long> inEdges) {
+	private boolean isConnectedGraph(TLongObjectHashMap<TLongHashSet> inEdges) {
 		if (system.referenceProcess == null)
 			return false;
-		HashMap<Long, Boolean> visited = new HashMap<>();
-		Queue<Long> queue = new ArrayDeque<>();
-		queue.add(system.referenceProcess.id);
-		while (!queue.isEmpty()) {
-			Long recipient = queue.poll();
-			visited.put(recipient, Boolean.TRUE);
-			for (Long provider : inEdges.get(recipient)) {
-				Boolean state = visited.get(provider);
-				if (!Objects.equals(state, Boolean.TRUE)
-					&& !queue.contains(provider))
-					queue.add(provider);
-			}
+		// a process is marked as visited when it is added to the stack, so
+		// that it is added only once; the traversal order does not matter here
+		var visited = new TLongHashSet();
+		var stack = new TLongArrayList();
+		long refId = system.referenceProcess.id;
+		visited.add(refId);
+		stack.add(refId);
+		while (!stack.isEmpty()) {
+			long recipient = stack.removeAt(stack.size() - 1);
+			var providers = inEdges.get(recipient);
+			if (providers == null)
+				continue;
+			providers.forEach(provider -> {
+				if (visited.add(provider)) {
+					stack.add(provider);
+				}
+				return true;
+			});
 		}
 		for (Long processId : system.processes) {
-			Boolean val = visited.get(processId);
-			if (!Objects.equals(val, Boolean.TRUE))
+			if (processId == null || !visited.contains(processId))
 				return false;
 		}
 		return true;
 	}
 
 	private List<LinkDegree> calculateMostLinked(
-		Multimap<Long, Long> edges, int maxSize) {
+		TLongObjectHashMap<TLongHashSet> edges, int maxSize) {
 		Long[] keys = new Long[maxSize];
 		int[] degrees = new int[maxSize];
-		for (Long id : edges.keySet()) {
+		for (long id : edges.keys()) {
 			int degree = edges.get(id).size();
 			if (degree == 0)
 				continue;
@@ -153,21 +169,7 @@ class Statistics {
 
 	private void collectProviderInfos(ProductSystem system, IDatabase db) {
 
-		var defaults = new TLongLongHashMap();
-		String query = "select id, f_default_provider from tbl_exchanges";
-		try {
-			NativeSql.on(db).query(query, r -> {
-				long defprov = r.getLong(2);
-				if (defprov == 0L)
-					return true;
-				long eid = r.getLong(1);
-				defaults.put(eid, defprov);
-				return true;
-			});
-		} catch (Exception e) {
-			Logger log = LoggerFactory.getLogger(getClass());
-			log.error("Failed to collect default providers", e);
-		}
+		var defaults = defaultProviders(system, db);
 
 		var ptable = ProcessTable.create(db);
 		for (ProcessLink link : system.processLinks) {
@@ -186,6 +188,43 @@ class Statistics {
 		}
 	}
 
+	/**
+	 * Returns the default providers of the linked exchanges of the given
+	 * system. Only the linked exchanges are queried, by their primary keys and
+	 * in chunks, instead of scanning the full exchange table.
+	 */
+	private TLongLongHashMap defaultProviders(ProductSystem system, IDatabase db) {
+		var defaults = new TLongLongHashMap();
+		var ids = new TLongHashSet();
+		for (var link : system.processLinks) {
+			ids.add(link.exchangeId);
+		}
+		var all = ids.toArray();
+		int chunk = 1000;
+		try {
+			for (int start = 0; start < all.length; start += chunk) {
+				int end = Math.min(start + chunk, all.length);
+				var query = new StringBuilder(
+					"select id, f_default_provider from tbl_exchanges where id in (");
+				for (int i = start; i < end; i++) {
+					if (i > start) {
+						query.append(',');
+					}
+					query.append(all[i]);
+				}
+				query.append(") and f_default_provider <> 0");
+				NativeSql.on(db).query(query.toString(), r -> {
+					defaults.put(r.getLong(1), r.getLong(2));
+					return true;
+				});
+			}
+		} catch (Exception e) {
+			Logger log = LoggerFactory.getLogger(getClass());
+			log.error("Failed to collect default providers", e);
+		}
+		return defaults;
+	}
+
 	record LinkDegree(int degree, RootDescriptor process) {
 		static LinkDegree of(long id, EntityCache cache,  int degree) {
 			RootDescriptor process = cache.get(ProcessDescriptor.class, id);
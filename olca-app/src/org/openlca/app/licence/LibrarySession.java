@@ -9,6 +9,7 @@ import java.util.Optional;
 
 import com.google.gson.stream.JsonReader;
 import org.openlca.app.M;
+import org.openlca.app.db.Libraries;
 import org.openlca.app.rcp.Workspace;
 import org.openlca.app.util.MsgBox;
 import org.openlca.license.License;
@@ -116,6 +117,7 @@ public class LibrarySession {
 	}
 
 	public static boolean removeSession(String library) {
+		Libraries.release(library);
 		var json = sessionOf(library);
 		if (json.exists())
 			return json.delete();
@@ -15,6 +15,7 @@ public class Console {
 	private static final PrintStream sysErr = System.err;
 	private static Console instance;
 	private final MessageConsoleStream stream;
+	private final ConsoleBuffer buffer;
 	private final MessageConsole console;
 
 	public static void show() {
@@ -27,22 +28,33 @@ public class Console {
 	public static void dispose() {
 		if (instance == null)
 			return;
+		System.setOut(sysOut);
+		System.setErr(sysErr);
 		instance.close();
 		var manager = ConsolePlugin.getDefault().getConsoleManager();
 		manager.removeConsoles(new IConsole[] { instance.console });
 		instance = null;
+	}
 
-		System.setOut(sysOut);
-		System.setErr(sysErr);
+	/**
+	 * Returns the number of bytes of the standard output that were not
+	 * written to the console because it could not keep up.
+	 */
+	public static long droppedBytes() {
+		return instance != null
+				? instance.buffer.droppedBytes()
+				: 0;
 	}
 
 	private Console() {
 		console = findOrCreate();
 		stream = console.newMessageStream();
-		// link sys.out and sys.err
-		var teeOut = new TeeOutputStream(sysOut, stream);
+		// link sys.out and sys.err; the console is written from a buffer
+		// so that the writing threads are not blocked by the console
+		buffer = new ConsoleBuffer(stream);
+		var teeOut = new TeeOutputStream(sysOut, buffer);
 		System.setOut(new PrintStream(teeOut));
-		var teeErr = new TeeOutputStream(sysErr, stream);
+		var teeErr = new TeeOutputStream(sysErr, buffer);
 		System.setErr(new PrintStream(teeErr));
 	}
 
@@ -64,6 +76,7 @@ public class Console {
 	}
 
 	private void close() {
+		buffer.close();
 		if (stream.isClosed())
 			return;
 		try {
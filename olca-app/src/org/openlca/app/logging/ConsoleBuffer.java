@@ -0,0 +1,153 @@
+package org.openlca.app.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded ring buffer between the standard output streams and the console
+ * widget. Writes only copy the bytes into the buffer; a background thread
+ * moves them to the console in regular intervals. When the buffer is full,
+ * the oldest bytes are overwritten and a note with the number of dropped
+ * bytes is written to the console.
+ */
+class ConsoleBuffer extends OutputStream {
+
+	private static final int CAPACITY = 1 << 18;
+	private static final long INTERVAL = 100;
+
+	private final OutputStream target;
+	private final ScheduledExecutorService timer;
+
+	private final byte[] ring = new byte[CAPACITY];
+	private int start;
+	private int size;
+	private long dropped;
+	private long totalDropped;
+	private boolean closed;
+
+	ConsoleBuffer(OutputStream target) {
+		this.target = target;
+		timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			var thread = new Thread(r, "console-buffer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		timer.scheduleWithFixedDelay(
+				this::drain, INTERVAL, INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public synchronized void write(int b) {
+		if (closed)
+			return;
+		if (size == CAPACITY) {
+			start = (start + 1) % CAPACITY;
+			size--;
+			dropped++;
+		}
+		ring[(start + size) % CAPACITY] = (byte) b;
+		size++;
+	}
+
+	@Override
+	public synchronized void write(byte[] b, int off, int len) {
+		if (closed || len <= 0)
+			return;
+		if (len >= CAPACITY) {
+			// only the tail of the data fits into the buffer
+			dropped += size + len - CAPACITY;
+			off += len - CAPACITY;
+			len = CAPACITY;
+			start = 0;
+			size = 0;
+		}
+		int overflow = size + len - CAPACITY;
+		if (overflow > 0) {
+			start = (start + overflow) % CAPACITY;
+			size -= overflow;
+			dropped += overflow;
+		}
+		int pos = (start + size) % CAPACITY;
+		int first = Math.min(len, CAPACITY - pos);
+		System.arraycopy(b, off, ring, pos, first);
+		System.arraycopy(b, off + first, ring, 0, len - first);
+		size += len;
+	}
+
+	/**
+	 * Returns the total number of bytes that were dropped because the buffer
+	 * was full.
+	 */
+	synchronized long droppedBytes() {
+		return totalDropped + dropped;
+	}
+
+	/**
+	 * Moves the buffered bytes to the console. The console is written outside
+	 * of the lock so that writers are not blocked by the console.
+	 */
+	private void drain() {
+		byte[] data;
+		long lost;
+		synchronized (this) {
+			if (size == 0 && dropped == 0)
+				return;
+			data = new byte[size];
+			int first = Math.min(size, CAPACITY - start);
+			System.arraycopy(ring, start, data, 0, first);
+			System.arraycopy(ring, 0, data, first, size - first);
+			start = 0;
+			size = 0;
+			lost = dropped;
+			totalDropped += dropped;
+			dropped = 0;
+		}
+		try {
+			if (lost > 0) {
+				var note = "\n... " + lost + " bytes of output dropped ...\n";
+				target.write(note.getBytes(StandardCharsets.UTF_8));
+			}
+			target.write(data);
+		} catch (IOException e) {
+			LoggerFactory.getLogger(getClass())
+					.warn("failed to write to console", e);
+		}
+	}
+
+	@Override
+	public void flush() {
+		// the data is moved to the console by the timer
+	}
+
+	/**
+	 * Stops the timer, writes the remaining bytes to the console, and
+	 * flushes it. The target stream is not closed.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed)
+				return;
+			closed = true;
+		}
+		timer.shutdown();
+		try {
+			timer.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		drain();
+		try {
+			target.flush();
+		} catch (IOException e) {
+			LoggerFactory.getLogger(getClass())
+					.warn("failed to flush console", e);
+		}
+	}
+}
@@ -4,10 +4,12 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.openlca.app.rcp.Workspace;
 import org.slf4j.LoggerFactory;
 
+import ch.qos.logback.classic.AsyncAppender;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.html.HTMLLayout;
 import ch.qos.logback.classic.spi.ILoggingEvent;
@@ -18,12 +20,36 @@ import ch.qos.logback.core.util.FileSize;
 
 import static ch.qos.logback.core.CoreConstants.LINE_SEPARATOR;
 
+/**
+ * The HTML log file of the application. The events are passed through an
+ * asynchronous appender with a bounded queue to the file appender so that
+ * the logging threads do not wait for the disk I/O. Which events are dropped
+ * when the queue is full is defined by the discard policy, see
+ * {@link LoggerPreference#LOG_DISCARD}.
+ */
 class HtmlLog {
 
+	private static final int QUEUE_SIZE = 2048;
+
 	private HtmlLog() {
 	}
 
-	static RollingFileAppender<ILoggingEvent> createAppender() {
+	static AsyncLog createAppender(String discardPolicy) {
+		var file = createFileAppender();
+		if (file == null)
+			return null;
+		var async = new AsyncLog();
+		async.setContext(file.getContext());
+		async.setName("html-async");
+		async.setQueueSize(QUEUE_SIZE);
+		async.setMaxFlushTime(5000);
+		async.setDiscardPolicy(discardPolicy);
+		async.addAppender(file);
+		async.start();
+		return async;
+	}
+
+	private static RollingFileAppender<ILoggingEvent> createFileAppender() {
 
 		var factory = LoggerFactory.getILoggerFactory();
 		if (!(factory instanceof LoggerContext context))
@@ -73,6 +99,55 @@ class HtmlLog {
 		return appender;
 	}
 
+	/**
+	 * An asynchronous appender that counts the events that it dropped.
+	 */
+	static class AsyncLog extends AsyncAppender {
+
+		private final LongAdder discarded = new LongAdder();
+		private final LongAdder rejected = new LongAdder();
+
+		void setDiscardPolicy(String policy) {
+			if (LoggerPreference.DISCARD_NONE.equals(policy)) {
+				setDiscardingThreshold(0);
+				setNeverBlock(false);
+			} else if (LoggerPreference.DISCARD_ALL.equals(policy)) {
+				setDiscardingThreshold(QUEUE_SIZE / 5);
+				setNeverBlock(true);
+			} else {
+				setDiscardingThreshold(QUEUE_SIZE / 5);
+				setNeverBlock(false);
+			}
+		}
+
+		/**
+		 * Returns the number of events that were dropped because of the
+		 * discarding threshold or because the queue was full.
+		 */
+		long droppedEvents() {
+			return discarded.sum() + rejected.sum();
+		}
+
+		@Override
+		protected boolean isDiscardable(ILoggingEvent event) {
+			// only called when the queue is below the discarding threshold
+			boolean b = super.isDiscardable(event);
+			if (b) {
+				discarded.increment();
+			}
+			return b;
+		}
+
+		@Override
+		protected void append(ILoggingEvent event) {
+			if (isNeverBlock() && getRemainingCapacity() == 0) {
+				rejected.increment();
+				return;
+			}
+			super.append(event);
+		}
+	}
+
 	public static class HTML5Layout extends HTMLLayout {
 
 		@Override
@@ -12,6 +12,8 @@ import ch.qos.logback.classic.Logger;
  */
 public class LoggerConfig {
 
+	private static HtmlLog.AsyncLog htmlLog;
+
 	static void setLevel(Level level) {
 		if (level == null)
 			return;
@@ -33,9 +35,10 @@ public class LoggerConfig {
 		if (!(root instanceof Logger log))
 			return;
 
-		var html = HtmlLog.createAppender();
+		var html = HtmlLog.createAppender(LoggerPreference.getDiscardPolicy());
 		if (html != null) {
 			log.addAppender(html);
+			htmlLog = html;
 		}
 
 		var popup = PopupAppender.create();
@@ -50,6 +53,44 @@ public class LoggerConfig {
 		setLevel(level);
 	}
 
+	static void setDiscardPolicy(String policy) {
+		if (htmlLog != null) {
+			htmlLog.setDiscardPolicy(policy);
+		}
+	}
+
+	/**
+	 * Returns the number of log events that were dropped by the asynchronous
+	 * file logger.
+	 */
+	public static long droppedEvents() {
+		return htmlLog != null
+				? htmlLog.droppedEvents()
+				: 0;
+	}
+
+	/**
+	 * Writes the pending events of the file logger and the console; should
+	 * be called when the application is closed.
+	 */
+	public static void shutDown() {
+		Console.dispose();
+		var html = htmlLog;
+		if (html == null)
+			return;
+		var root = LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+		long dropped = html.droppedEvents();
+		if (dropped > 0) {
+			root.warn("{} log events were dropped under load", dropped);
+		}
+		htmlLog = null;
+		if (root instanceof Logger log) {
+			log.detachAppender(html);
+		}
+		// drains the queue within the max. flush time
+		html.stop();
+	}
+
 	private static Level levelOf(String arg) {
 		if (Strings.nullOrEmpty(arg))
 			return Level.INFO;
@@ -28,6 +28,13 @@ public class LoggerConfigPage extends FieldEditorPreferencePage implements
 		var logRadios = new RadioGroupFieldEditor(
 			LoggerPreference.LOG_LEVEL, "Log-Level:", 1, logLevel, parent, true);
 		addField(logRadios);
+		String[][] discard = new String[][]{
+			{"Never drop messages", LoggerPreference.DISCARD_NONE},
+			{"Drop information messages under load", LoggerPreference.DISCARD_INFO},
+			{"Drop any message under load", LoggerPreference.DISCARD_ALL}};
+		var discardRadios = new RadioGroupFieldEditor(
+			LoggerPreference.LOG_DISCARD, "Log-File:", 1, discard, parent, true);
+		addField(discardRadios);
 	}
 
 	@Override
@@ -36,6 +43,7 @@ public class LoggerConfigPage extends FieldEditorPreferencePage implements
 		if (b) {
 			var level = LoggerPreference.getLogLevel();
 			LoggerConfig.setLevel(level);
+			LoggerConfig.setDiscardPolicy(LoggerPreference.getDiscardPolicy());
 			if (LoggerPreference.getShowConsole()) {
 				Console.show();
 			} else {
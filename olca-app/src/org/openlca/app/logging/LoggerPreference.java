@@ -19,11 +19,30 @@ public class LoggerPreference extends AbstractPreferenceInitializer {
 	public static final String LEVEL_WARN = "olca-log-level-warn";
 	public static final String LEVEL_ERROR = "olca-log-level-error";
 
+	/**
+	 * Defines which events are dropped when the queue of the asynchronous
+	 * file logger is full.
+	 */
+	public static final String LOG_DISCARD = "olca-log-discard";
+
+	/** Never drop events but block the logging threads when the queue is full. */
+	public static final String DISCARD_NONE = "olca-log-discard-none";
+
+	/**
+	 * Drop trace, debug, and info events when the queue is almost full; block
+	 * for warnings and errors.
+	 */
+	public static final String DISCARD_INFO = "olca-log-discard-info";
+
+	/** Never block the logging threads but drop events when the queue is full. */
+	public static final String DISCARD_ALL = "olca-log-discard-all";
+
 	@Override
 	public void initializeDefaultPreferences() {
 		var store = store();
 		store.setDefault(LOG_CONSOLE, false);
 		store.setDefault(LOG_LEVEL, LEVEL_INFO);
+		store.setDefault(LOG_DISCARD, DISCARD_INFO);
 	}
 
 	static Level getLogLevel() {
@@ -38,6 +57,13 @@ public class LoggerPreference extends AbstractPreferenceInitializer {
 		};
 	}
 
+	static String getDiscardPolicy() {
+		var policy = store().getString(LOG_DISCARD);
+		return Strings.nullOrEmpty(policy)
+				? DISCARD_INFO
+				: policy;
+	}
+
 	public static boolean getShowConsole() {
 		return store().getBoolean(LOG_CONSOLE);
 	}
@@ -1,26 +1,24 @@
 package org.openlca.app.navigation;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
 
+import org.eclipse.ui.PlatformUI;
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
-import org.openlca.app.db.DatabaseDir;
-import org.openlca.app.db.Libraries;
 import org.openlca.app.navigation.elements.CategoryElement;
 import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.ModelElement;
 import org.openlca.app.navigation.elements.ModelTypeElement;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.core.database.CategoryDao;
 import org.openlca.core.database.Daos;
 import org.openlca.core.model.Category;
-import org.openlca.core.model.ImpactCategory;
 import org.openlca.core.model.ModelType;
-import org.openlca.core.model.Process;
-import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.descriptors.RootDescriptor;
+import org.slf4j.LoggerFactory;
 
 public class CopyPaste {
 
@@ -125,7 +123,7 @@ public class CopyPaste {
 		if (cacheIsEmpty())
 			return;
 		for (INavigationElement<?> element : cache) {
-			paste(element, element.getParent());
+			move(element, element.getParent());
 			var modelRoot = Navigator.findElement(getModelType(element));
 			Navigator.refresh(modelRoot);
 		}
@@ -137,8 +135,12 @@ public class CopyPaste {
 		if (!canPasteTo(categoryElement))
 			return;
 		try {
-			for (INavigationElement<?> element : cache) {
-				paste(element, categoryElement);
+			if (currentAction == Action.COPY) {
+				copyTo(cache, getCategory(categoryElement));
+			} else {
+				for (INavigationElement<?> element : cache) {
+					move(element, categoryElement);
+				}
 			}
 		} finally {
 			clearCache();
@@ -172,18 +174,28 @@ public class CopyPaste {
 		return getModelType(element) == getModelType(cache[0]);
 	}
 
-	private static void paste(INavigationElement<?> element, INavigationElement<?> category) {
-		if (currentAction == Action.CUT) {
-			if (element instanceof CategoryElement)
-				move((CategoryElement) element, category);
-			else if (element instanceof ModelElement)
-				move((ModelElement) element, category);
-		} else if (currentAction == Action.COPY) {
-			if (element instanceof CategoryElement) {
-				copy((CategoryElement) element, category);
-			} else if (element instanceof ModelElement modElem) {
-				copyTo(modElem, getCategory(category));
-			}
+	private static void move(INavigationElement<?> element, INavigationElement<?> category) {
+		if (element instanceof CategoryElement)
+			move((CategoryElement) element, category);
+		else if (element instanceof ModelElement)
+			move((ModelElement) element, category);
+	}
+
+	/**
+	 * Copies the given elements into the given category in a single
+	 * transaction, see {@link ModelTreeCopy}.
+	 */
+	private static void copyTo(INavigationElement<?>[] elements, Category category) {
+		var copy = ModelTreeCopy.of(Database.get(), elements, category);
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true, copy);
+		} catch (InvocationTargetException e) {
+			ErrorReporter.on("Failed to copy data sets", e.getCause());
+		} catch (InterruptedException e) {
+			LoggerFactory.getLogger(CopyPaste.class)
+					.info("copying of data sets canceled");
+		} finally {
+			Cache.evictAll();
 		}
 	}
 
@@ -235,63 +247,6 @@ public class CopyPaste {
 		Daos.root(Database.get(), entity.type).updateCategory(entity, parent);
 	}
 
-	private static void copy(CategoryElement element, INavigationElement<?> category) {
-		Category parent = getCategory(category);
-		Queue<CategoryElement> elements = new LinkedList<>();
-		elements.add(element);
-		while (!elements.isEmpty()) {
-			CategoryElement current = elements.poll();
-			Category catCopy = current.getContent().copy();
-			catCopy.name = catCopy.name + " (copy)";
-			catCopy.childCategories.clear();
-			catCopy.category = parent;
-			if (parent == null)
-				catCopy = Database.get().insert(catCopy);
-			else {
-				parent.childCategories.add(catCopy);
-				parent = Database.get().update(parent);
-				for (var child : parent.childCategories) {
-					if (child.name.equals(catCopy.name)) {
-						catCopy = child;
-						break;
-					}
-				}
-			}
-			for (INavigationElement<?> child : current.getChildren())
-				if (child instanceof CategoryElement catElem)
-					elements.add(catElem);
-				else if (child instanceof ModelElement modElem) {
-					copyTo(modElem, catCopy);
-				}
-			parent = catCopy;
-		}
-	}
-
-	private static void copyTo(ModelElement e, Category category) {
-		var d = e.getContent();
-		if (d == null)
-			return;
-		var dao = Daos.root(Database.get(), d.type);
-		if (dao == null)
-			return;
-		var entity = dao.getForId(d.id);
-		if (entity == null)
-			return;
-		if (entity.isFromLibrary()) {
-			if (entity instanceof Process p) {
-				Libraries.fillExchangesOf(p);
-			} else if (entity instanceof ImpactCategory i) {
-				Libraries.fillFactorsOf(i);
-			}
-		}
-		var copy = (RootEntity) entity.copy();
-		copy.library = null;
-		copy.category = category;
-		copy.name = copy.name + " (copy)";
-		DatabaseDir.copyDir(entity, copy);
-		Database.get().insert(copy);
-	}
-
 	public static boolean cacheIsEmpty() {
 		return cache == null || cache.length == 0;
 	}
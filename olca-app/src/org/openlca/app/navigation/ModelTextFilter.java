@@ -1,62 +1,264 @@
 package org.openlca.app.navigation;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.TreeItem;
+import org.openlca.app.db.Database;
+import org.openlca.app.navigation.elements.CategoryElement;
 import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.ModelElement;
-import org.openlca.app.util.Labels;
+import org.openlca.app.navigation.elements.ModelTypeElement;
+import org.openlca.app.search.SearchIndex;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.set.hash.TLongHashSet;
 
 /**
  * A class for filtering model elements from an navigation tree via a text
  * filter. The filter directly registers a listener on the text field.
+ * <p>
+ * The matching models and the categories that contain them are collected in a
+ * background job from the search index after the user stopped typing. A new
+ * input cancels a running job. The filter then decides from these sets
+ * whether an element is visible, so that only the children of the categories
+ * that are actually shown in the tree are loaded.
  */
 public class ModelTextFilter extends ViewerFilter {
 
+	/** The time in milliseconds to wait for further input. */
+	private static final int DELAY = 300;
+
 	private final Text filterText;
+	private final TreeViewer viewer;
+	private final Runnable update = this::update;
+
+	/** The running job that collects the matches, if any. */
+	private Job job;
+
+	/** The current matches or {@code null} if the filter is empty. */
+	private Matches matches;
 
 	public ModelTextFilter(Text text, TreeViewer viewer) {
 		this.filterText = text;
+		this.viewer = viewer;
 		text.addModifyListener(e -> {
-			viewer.refresh();
-			expand(viewer);
+			var display = text.getDisplay();
+			display.timerExec(-1, update);
+			display.timerExec(DELAY, update);
+		});
+		text.addDisposeListener(e -> {
+			text.getDisplay().timerExec(-1, update);
+			if (job != null) {
+				job.cancel();
+				job = null;
+			}
 		});
 	}
 
-	private void expand(TreeViewer viewer) {
+	private void update() {
+		if (filterText.isDisposed() || viewer.getTree().isDisposed())
+			return;
+		if (job != null) {
+			job.cancel();
+			job = null;
+		}
+		var text = filterText.getText();
+		var db = Database.get();
+		if (db == null || text == null || text.trim().isEmpty()) {
+			matches = null;
+			viewer.refresh();
+			return;
+		}
+
+		var q = text.trim().toLowerCase();
+		var types = typesOf(viewer);
+		var display = viewer.getTree().getDisplay();
+		var next = new Job("Filter navigation tree") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				var m = Matches.of(db, types, q, monitor);
+				if (m == null || monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				display.asyncExec(() -> apply(this, m));
+				return Status.OK_STATUS;
+			}
+		};
+		next.setSystem(true);
+		job = next;
+		next.schedule();
+	}
+
+	private void apply(Job source, Matches m) {
+		if (job != source || viewer.getTree().isDisposed())
+			return;
+		job = null;
+		matches = m;
+		viewer.refresh();
+		expand();
+	}
+
+	/**
+	 * Expands the first path of the filtered tree and collapses the others.
+	 * Only the children of the expanded elements are created.
+	 */
+	private void expand() {
 		TreeItem[] items = viewer.getTree().getItems();
-		while (items != null && items.length > 0) {
+		while (items.length > 0) {
 			TreeItem next = items[0];
-			next.setExpanded(true);
 			for (int i = 1; i < items.length; i++)
 				items[i].setExpanded(false);
+			var data = next.getData();
+			if (data == null)
+				break;
+			viewer.setExpandedState(data, true);
 			items = next.getItems();
-			viewer.refresh();
 		}
 	}
 
+	/**
+	 * Collects the model types of the tree. The children of the top-level
+	 * elements are only visited until a model type is found, so no categories
+	 * or models are loaded here.
+	 */
+	private static Set<ModelType> typesOf(TreeViewer viewer) {
+		var types = EnumSet.noneOf(ModelType.class);
+		if (!(viewer.getContentProvider() instanceof ITreeContentProvider p))
+			return types;
+		var queue = new ArrayDeque<Object>(
+				Arrays.asList(p.getElements(viewer.getInput())));
+		while (!queue.isEmpty()) {
+			var next = queue.poll();
+			if (next instanceof ModelTypeElement e) {
+				types.add(e.getContent());
+			} else if (next instanceof CategoryElement e) {
+				if (e.getContent() != null) {
+					types.add(e.getContent().modelType);
+				}
+			} else if (next instanceof ModelElement e) {
+				if (e.getContent() != null) {
+					types.add(e.getContent().type);
+				}
+			} else if (next instanceof INavigationElement<?> e) {
+				queue.addAll(e.getChildren());
+			}
+		}
+		return types;
+	}
+
 	@Override
 	public boolean select(Viewer viewer, Object parentElement, Object element) {
-		String text = filterText.getText();
-		if (text == null || text.trim().isEmpty())
+		var m = matches;
+		if (m == null || !(element instanceof INavigationElement<?> e))
 			return true;
-		text = text.trim().toLowerCase();
-		return select((INavigationElement<?>) element, text);
+		return select(e, m);
 	}
 
-	private boolean select(INavigationElement<?> element, String text) {
-		if (element instanceof ModelElement) {
-			ModelElement modelElement = (ModelElement) element;
-			String feed = Labels.name(modelElement.getContent())
-					.toLowerCase();
-			return feed.contains(text);
+	private boolean select(INavigationElement<?> element, Matches m) {
+		if (element instanceof ModelElement e) {
+			var d = e.getContent();
+			return d != null && m.contains(d);
+		}
+		if (element instanceof CategoryElement e) {
+			var category = e.getContent();
+			return category != null && m.categories.contains(category.id);
 		}
+		if (element instanceof ModelTypeElement e)
+			return m.models.containsKey(e.getContent());
 		for (INavigationElement<?> child : element.getChildren()) {
-			if (select(child, text))
+			if (select(child, m))
 				return true;
 		}
 		return false;
 	}
+
+	/**
+	 * The IDs of the matching models per type and the IDs of the categories
+	 * that contain a matching model directly or in a sub-category.
+	 */
+	private record Matches(
+			EnumMap<ModelType, TLongHashSet> models,
+			TLongHashSet categories) {
+
+		/**
+		 * Collects the matches or returns {@code null} when the given monitor
+		 * was canceled.
+		 */
+		static Matches of(IDatabase db, Set<ModelType> types, String text,
+				IProgressMonitor monitor) {
+			var models = new EnumMap<ModelType, TLongHashSet>(ModelType.class);
+			var direct = new TLongHashSet();
+			for (var type : types) {
+				if (monitor.isCanceled())
+					return null;
+				var ids = new TLongHashSet();
+				for (var d : SearchIndex.findByName(db, type, text)) {
+					ids.add(d.id);
+					if (d instanceof RootDescriptor rd && rd.category != null) {
+						direct.add(rd.category);
+					}
+				}
+				if (!ids.isEmpty()) {
+					models.put(type, ids);
+				}
+			}
+			if (monitor.isCanceled())
+				return null;
+			return new Matches(models, withParents(db, direct));
+		}
+
+		/**
+		 * Adds the parent categories of the given categories.
+		 */
+		private static TLongHashSet withParents(IDatabase db, TLongHashSet direct) {
+			var categories = new TLongHashSet();
+			if (direct.isEmpty())
+				return categories;
+			var parents = new TLongLongHashMap();
+			try {
+				var sql = "select id, f_category from tbl_categories";
+				NativeSql.on(db).query(sql, r -> {
+					long parent = r.getLong(2);
+					if (parent != 0) {
+						parents.put(r.getLong(1), parent);
+					}
+					return true;
+				});
+			} catch (Exception e) {
+				Logger log = LoggerFactory.getLogger(ModelTextFilter.class);
+				log.error("failed to load category tree", e);
+			}
+			var it = direct.iterator();
+			while (it.hasNext()) {
+				long id = it.next();
+				while (id != 0 && categories.add(id)) {
+					id = parents.get(id);
+				}
+			}
+			return categories;
+		}
+
+		boolean contains(RootDescriptor d) {
+			var ids = models.get(d.type);
+			return ids != null && ids.contains(d.id);
+		}
+	}
 }
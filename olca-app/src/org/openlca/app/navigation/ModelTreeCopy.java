@@ -0,0 +1,242 @@
+package org.openlca.app.navigation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.operation.IRunnableWithProgress;
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.app.db.Libraries;
+import org.openlca.app.navigation.elements.CategoryElement;
+import org.openlca.app.navigation.elements.INavigationElement;
+import org.openlca.app.navigation.elements.ModelElement;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ImpactCategory;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Copies models and category trees into a target category. The structure to
+ * copy is collected from the navigation elements first. Then, the models are
+ * loaded and copied in chunks, and inserted together with the copied
+ * categories in a single transaction. The inserts are flushed after each
+ * chunk so that they are executed in batches. When the copy fails or is
+ * canceled, the transaction is rolled back and the copied folders of the
+ * models are deleted again.
+ */
+class ModelTreeCopy implements IRunnableWithProgress {
+
+	private static final int CHUNK_SIZE = 500;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase db;
+	private final Category target;
+
+	/** The categories to copy; parents are always before their children. */
+	private final List<Node> nodes = new ArrayList<>();
+
+	/** The IDs of the models to copy per type and their category nodes. */
+	private final EnumMap<ModelType, List<Item>> items =
+			new EnumMap<>(ModelType.class);
+	private int count;
+
+	private ModelTreeCopy(IDatabase db, Category target) {
+		this.db = db;
+		this.target = target;
+	}
+
+	/**
+	 * Prepares the copy of the given elements into the given category. The
+	 * target category is {@code null} when the elements are copied to the
+	 * root of a model type. This needs to be called in the UI thread.
+	 */
+	static ModelTreeCopy of(
+			IDatabase db, INavigationElement<?>[] elements, Category target) {
+		var copy = new ModelTreeCopy(db, target);
+		for (var elem : elements) {
+			copy.add(elem, null);
+		}
+		return copy;
+	}
+
+	private void add(INavigationElement<?> elem, Node parent) {
+		if (elem instanceof ModelElement e) {
+			var d = e.getContent();
+			if (d == null || d.type == null)
+				return;
+			items.computeIfAbsent(d.type, t -> new ArrayList<>())
+					.add(new Item(d.id, parent));
+			count++;
+		} else if (elem instanceof CategoryElement e) {
+			if (e.getContent() == null)
+				return;
+			var node = new Node(e.getContent(), parent);
+			nodes.add(node);
+			for (var child : e.getChildren()) {
+				add(child, node);
+			}
+		}
+	}
+
+	@Override
+	public void run(IProgressMonitor monitor)
+			throws InvocationTargetException, InterruptedException {
+		monitor.beginTask("Copy data sets", count);
+		var copiedDirs = new ArrayList<Descriptor>();
+		var em = db.getEntityFactory().createEntityManager();
+		var tx = em.getTransaction();
+		try {
+			tx.begin();
+			copyCategories(em);
+			for (var e : items.entrySet()) {
+				var list = e.getValue();
+				for (int i = 0; i < list.size(); i += CHUNK_SIZE) {
+					if (monitor.isCanceled())
+						throw new InterruptedException("copy canceled");
+					var chunk = list.subList(
+							i, Math.min(i + CHUNK_SIZE, list.size()));
+					copyModels(em, e.getKey(), chunk, copiedDirs);
+					monitor.worked(chunk.size());
+				}
+			}
+			tx.commit();
+			log.trace("copied {} models and {} categories", count, nodes.size());
+		} catch (Exception e) {
+			if (tx.isActive()) {
+				tx.rollback();
+			}
+			for (var d : copiedDirs) {
+				DatabaseDir.deleteDir(d);
+			}
+			if (e instanceof InterruptedException ie)
+				throw ie;
+			throw new InvocationTargetException(e);
+		} finally {
+			em.close();
+			monitor.done();
+		}
+	}
+
+	private void copyCategories(EntityManager em) {
+		var parent = target != null
+				? em.find(Category.class, target.id)
+				: null;
+		for (var node : nodes) {
+			var copy = node.source.copy();
+			copy.name = copy.name + " (copy)";
+			copy.childCategories.clear();
+			var p = node.parent != null
+					? node.parent.copy
+					: parent;
+			copy.category = p;
+			if (p != null) {
+				p.childCategories.add(copy);
+			}
+			em.persist(copy);
+			node.copy = copy;
+		}
+		em.flush();
+	}
+
+	private void copyModels(EntityManager em, ModelType type,
+			List<Item> chunk, List<Descriptor> copiedDirs) {
+		var clazz = type.getModelClass();
+		if (clazz == null)
+			return;
+
+		// load the models of the chunk with a single query
+		var ids = new ArrayList<Long>(chunk.size());
+		for (var item : chunk) {
+			ids.add(item.id);
+		}
+		var query = "select e from " + clazz.getSimpleName()
+				+ " e where e.id in :ids";
+		// the lazy collections of the models are loaded when they are copied,
+		// thus the reader needs to be open until all copies are created; the
+		// copies are created sequentially as the library readers and the
+		// reader are not thread-safe
+		var reader = db.getEntityFactory().createEntityManager();
+		List<? extends RootEntity> entities;
+		var copies = new ArrayList<RootEntity>(chunk.size());
+		try {
+			entities = reader.createQuery(query, clazz)
+					.setParameter("ids", ids)
+					.getResultList();
+			for (var entity : entities) {
+				copies.add(copyOf(entity));
+			}
+		} finally {
+			reader.close();
+		}
+
+		var nodeOf = new HashMap<Long, Node>();
+		for (var item : chunk) {
+			if (item.node != null) {
+				nodeOf.put(item.id, item.node);
+			}
+		}
+		for (int i = 0; i < entities.size(); i++) {
+			var entity = entities.get(i);
+			var copy = copies.get(i);
+			copy.category = categoryOf(em, nodeOf.get(entity.id));
+			em.persist(copy);
+			DatabaseDir.copyDir(entity, copy);
+			copiedDirs.add(Descriptor.of(copy));
+		}
+		em.flush();
+		em.clear();
+	}
+
+	/**
+	 * Returns a reference to the category of a copied model that is managed
+	 * by the given entity manager. The category copies are persisted in the
+	 * same transaction but are detached when the entity manager is cleared
+	 * after a chunk, so we cannot use them directly.
+	 */
+	private Category categoryOf(EntityManager em, Node node) {
+		var category = node != null
+				? node.copy
+				: target;
+		return category != null
+				? em.getReference(Category.class, category.id)
+				: null;
+	}
+
+	private RootEntity copyOf(RootEntity entity) {
+		if (entity.isFromLibrary()) {
+			if (entity instanceof Process p) {
+				Libraries.fillExchangesOf(p);
+			} else if (entity instanceof ImpactCategory i) {
+				Libraries.fillFactorsOf(i);
+			}
+		}
+		var copy = (RootEntity) entity.copy();
+		copy.library = null;
+		copy.name = copy.name + " (copy)";
+		return copy;
+	}
+
+	private static class Node {
+		final Category source;
+		final Node parent;
+		Category copy;
+
+		Node(Category source, Node parent) {
+			this.source = source;
+			this.parent = parent;
+		}
+	}
+
+	private record Item(long id, Node node) {
+	}
+}
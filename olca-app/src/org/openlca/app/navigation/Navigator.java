@@ -148,11 +148,13 @@ public class Navigator extends CommonNavigator {
 			root.update();
 			viewer.refresh();
 			setRefreshedExpansion(viewer, oldExpansion);
-		});
+		}, null, Navigator::refreshLabels);
 	}
 
 	/**
-	 * Refreshes the content *under* the given element.
+	 * Refreshes the content *under* the given element. Only the sub-tree of
+	 * the element is reloaded; the repository state is only updated for the
+	 * model type of the element.
 	 */
 	public static void refresh(INavigationElement<?> element) {
 		var viewer = getNavigationViewer();
@@ -176,7 +178,18 @@ public class Navigator extends CommonNavigator {
 			if (contentTest != null) {
 				contentTest.clearCacheOf(modelType);
 			}
-		});
+		}, modelTypeOf(element), Navigator::refreshLabels);
+	}
+
+	/**
+	 * Updates the labels of the navigation tree without reloading its content.
+	 * This is called after the repository state was updated in the background.
+	 */
+	private static void refreshLabels() {
+		var viewer = getNavigationViewer();
+		if (viewer == null || viewer.getTree().isDisposed())
+			return;
+		viewer.refresh(true);
 	}
 
 	private static ModelType modelTypeOf(INavigationElement<?> elem) {
@@ -0,0 +1,213 @@
+package org.openlca.app.navigation.actions;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.PluralAttribute;
+
+/**
+ * Deletes models with set-based statements instead of removing each entity
+ * via the entity manager. The entities that are owned by a model, like the
+ * exchanges of a process, are found via the JPA meta-model and are deleted
+ * first with bulk JPQL statements per chunk of IDs; the link tables of
+ * many-to-many relations and element collections are cleared with native SQL.
+ * Thus, the number of statements depends on the number of chunks and not on
+ * the number of models. Types with relations for which the link table is not
+ * declared in the mapping are removed entity by entity.
+ */
+class BulkDelete {
+
+	private static final int CHUNK_SIZE = 1000;
+
+	private final EntityManager em;
+	private final Map<Class<?>, Boolean> supported = new HashMap<>();
+
+	BulkDelete(EntityManager em) {
+		this.em = em;
+	}
+
+	/**
+	 * Deletes the entities of the given type with the given IDs. This needs to
+	 * be called in an active transaction of the entity manager.
+	 */
+	void delete(Class<?> type, List<Long> ids) {
+		for (int i = 0; i < ids.size(); i += CHUNK_SIZE) {
+			var chunk = ids.subList(i, Math.min(i + CHUNK_SIZE, ids.size()));
+			if (!isSupported(type, new HashSet<>())) {
+				removeEach(type, chunk);
+				continue;
+			}
+			deleteOwned(type, chunk);
+			var entity = em.getMetamodel().entity(type);
+			em.createQuery("delete from " + entity.getName()
+					+ " e where e.id in :ids")
+					.setParameter("ids", chunk)
+					.executeUpdate();
+		}
+	}
+
+	private void deleteOwned(Class<?> type, List<Long> ids) {
+		var entity = em.getMetamodel().entity(type);
+		for (var a : entity.getAttributes()) {
+			if (!(a.getJavaMember() instanceof Field field))
+				continue;
+			switch (a.getPersistentAttributeType()) {
+				case ONE_TO_MANY, ONE_TO_ONE -> {
+					if (!isOwned(field))
+						continue;
+					var childIds = em.createQuery("select c.id from "
+							+ entity.getName() + " e join e." + a.getName()
+							+ " c where e.id in :ids", Long.class)
+							.setParameter("ids", ids)
+							.getResultList();
+					delete(targetOf(a), childIds);
+				}
+				case MANY_TO_MANY, ELEMENT_COLLECTION -> {
+					var link = linkOf(field);
+					if (link == null)
+						continue;
+					em.createNativeQuery("delete from " + link.table
+							+ " where " + link.column + " in (" + join(ids) + ")")
+							.executeUpdate();
+				}
+				default -> {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true when the link tables of all many-to-many relations and
+	 * element collections of the given type and its owned entities are known.
+	 */
+	private boolean isSupported(Class<?> type, Set<Class<?>> visited) {
+		var cached = supported.get(type);
+		if (cached != null)
+			return cached;
+		if (!visited.add(type))
+			return true;
+		boolean b = true;
+		var entity = em.getMetamodel().entity(type);
+		for (var a : entity.getAttributes()) {
+			if (!(a.getJavaMember() instanceof Field field)) {
+				if (a.isAssociation() || a.isCollection()) {
+					b = false;
+					break;
+				}
+				continue;
+			}
+			var kind = a.getPersistentAttributeType();
+			if (kind == Attribute.PersistentAttributeType.MANY_TO_MANY
+					|| kind == Attribute.PersistentAttributeType.ELEMENT_COLLECTION) {
+				if (linkOf(field) == null && !isInverse(field)) {
+					b = false;
+					break;
+				}
+			} else if ((kind == Attribute.PersistentAttributeType.ONE_TO_MANY
+					|| kind == Attribute.PersistentAttributeType.ONE_TO_ONE)
+					&& isOwned(field)
+					&& !isSupported(targetOf(a), visited)) {
+				b = false;
+				break;
+			}
+		}
+		supported.put(type, b);
+		return b;
+	}
+
+	private void removeEach(Class<?> type, List<Long> ids) {
+		var entity = em.getMetamodel().entity(type);
+		var entities = em.createQuery("select e from " + entity.getName()
+				+ " e where e.id in :ids", type)
+				.setParameter("ids", ids)
+				.getResultList();
+		for (var e : entities) {
+			em.remove(e);
+		}
+		em.flush();
+		em.clear();
+	}
+
+	/**
+	 * Returns true when the entities of the given relation are removed
+	 * together with their owner.
+	 */
+	private static boolean isOwned(Field field) {
+		var oneToMany = field.getAnnotation(OneToMany.class);
+		if (oneToMany != null)
+			return oneToMany.orphanRemoval()
+					|| cascadesRemove(oneToMany.cascade());
+		var oneToOne = field.getAnnotation(OneToOne.class);
+		if (oneToOne != null)
+			return oneToOne.orphanRemoval()
+					|| cascadesRemove(oneToOne.cascade());
+		return false;
+	}
+
+	private static boolean cascadesRemove(CascadeType[] types) {
+		for (var t : types) {
+			if (t == CascadeType.ALL || t == CascadeType.REMOVE)
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean isInverse(Field field) {
+		var m = field.getAnnotation(ManyToMany.class);
+		return m != null && !m.mappedBy().isEmpty();
+	}
+
+	private static Class<?> targetOf(Attribute<?, ?> a) {
+		return a instanceof PluralAttribute<?, ?, ?> p
+				? p.getElementType().getJavaType()
+				: a.getJavaType();
+	}
+
+	/**
+	 * Returns the link table and the column with the owner IDs of the given
+	 * many-to-many relation or element collection, or {@code null} if it is
+	 * not declared in the mapping.
+	 */
+	private static Link linkOf(Field field) {
+		var joinTable = field.getAnnotation(JoinTable.class);
+		if (joinTable != null
+				&& !joinTable.name().isEmpty()
+				&& joinTable.joinColumns().length == 1
+				&& !joinTable.joinColumns()[0].name().isEmpty())
+			return new Link(joinTable.name(), joinTable.joinColumns()[0].name());
+		var collectionTable = field.getAnnotation(CollectionTable.class);
+		if (collectionTable != null
+				&& !collectionTable.name().isEmpty()
+				&& collectionTable.joinColumns().length == 1
+				&& !collectionTable.joinColumns()[0].name().isEmpty())
+			return new Link(collectionTable.name(),
+					collectionTable.joinColumns()[0].name());
+		return null;
+	}
+
+	private static String join(List<Long> ids) {
+		var b = new StringBuilder();
+		for (int i = 0; i < ids.size(); i++) {
+			if (i > 0) {
+				b.append(',');
+			}
+			b.append(ids.get(i));
+		}
+		return b.toString();
+	}
+
+	private record Link(String table, String column) {
+	}
+}
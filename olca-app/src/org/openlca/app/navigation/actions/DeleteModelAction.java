@@ -1,11 +1,12 @@
 package org.openlca.app.navigation.actions;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.IDialogConstants;
-import org.eclipse.jface.dialogs.MessageDialogWithToggle;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.osgi.util.NLS;
 import org.openlca.app.App;
@@ -20,21 +21,29 @@ import org.openlca.app.navigation.elements.ModelElement;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.Labels;
+import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.Question;
-import org.openlca.app.util.UI;
 import org.openlca.core.database.CategoryDao;
-import org.openlca.core.database.usage.UsageSearch;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.core.model.descriptors.RootDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gnu.trove.set.hash.TLongHashSet;
+
 public class DeleteModelAction extends Action implements INavigationAction {
 
+	/** Above this number of deleted models, all caches are cleared. */
+	private static final int EVICT_ALL_THRESHOLD = 100;
+
+	/** The maximum number of blocked models listed in the message. */
+	private static final int MAX_REPORTED = 25;
+
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	private final List<ModelElement> models = new ArrayList<>();
 	private final List<CategoryElement> categories = new ArrayList<>();
-	private boolean showInUseMessage = true;
 
 	@Override
 	public boolean accept(List<INavigationElement<?>> elements) {
@@ -70,14 +79,67 @@ public class DeleteModelAction extends Action implements INavigationAction {
 
 	@Override
 	public void run() {
-		showInUseMessage = true;
-		int continuationFlag = deleteModels();
-		deleteCategories(continuationFlag);
+		var selected = new ArrayList<RootDescriptor>();
+		var selectedCategories = new ArrayList<CategoryElement>();
+		int continuationFlag = selectModels(selected);
+		selectCategories(continuationFlag, selectedCategories);
 		models.clear();
 		categories.clear();
+		if (selected.isEmpty() && selectedCategories.isEmpty())
+			return;
+
+		// collect the models of the selected categories
+		var all = new ArrayList<RootDescriptor>();
+		var seen = new EnumMap<ModelType, TLongHashSet>(ModelType.class);
+		for (var d : selected) {
+			add(d, all, seen);
+		}
+		for (var cat : selectedCategories) {
+			collectContent(cat, all, seen);
+		}
+
+		// run the usage analysis for all models at once
+		var db = Database.get();
+		var blocked = App.exec("Search usages ...",
+				() -> UsageAnalysis.blockedOf(db, all));
+		if (blocked == null)
+			return;
+		var deletable = new ArrayList<RootDescriptor>();
+		for (var d : all) {
+			if (!isBlocked(d, blocked)) {
+				deletable.add(d);
+			}
+		}
+
+		// delete the models in a single transaction
+		for (var d : deletable) {
+			App.close(d);
+		}
+		if (!deletable.isEmpty()) {
+			var done = App.exec(M.Delete + " ...", () -> {
+				deleteAll(db, deletable);
+				return true;
+			});
+			if (done == null) {
+				Cache.evictAll();
+				Navigator.refresh();
+				return;
+			}
+			for (var d : deletable) {
+				DatabaseDir.deleteDir(d);
+			}
+		}
+
+		var deletedCategories = new TLongHashSet();
+		for (var cat : selectedCategories) {
+			delete(cat, blocked, deletedCategories);
+		}
+		evict(deletable);
+		Navigator.refresh();
+		reportBlocked(all, blocked);
 	}
 
-	private int deleteModels() {
+	private int selectModels(List<RootDescriptor> selected) {
 		boolean dontAsk = false;
 		for (var elem : models) {
 			var model = elem.getContent();
@@ -91,16 +153,12 @@ public class DeleteModelAction extends Action implements INavigationAction {
 					|| a == IDialogConstants.NO_TO_ALL_ID) {
 				return IDialogConstants.CANCEL_ID;
 			}
-			if (a == IDialogConstants.NO_ID || isUsed(model))
+			if (a == IDialogConstants.NO_ID)
 				continue;
 			if (a == IDialogConstants.YES_TO_ALL_ID) {
 				dontAsk = true;
 			}
-
-			// delete the model
-			App.close(model);
-			delete(model);
-			Navigator.refresh(elem.getParent());
+			selected.add(model);
 		}
 
 		return dontAsk
@@ -108,7 +166,8 @@ public class DeleteModelAction extends Action implements INavigationAction {
 				: IDialogConstants.YES_ID;
 	}
 
-	private void deleteCategories(int continuationFlag) {
+	private void selectCategories(
+			int continuationFlag, List<CategoryElement> selected) {
 		if (continuationFlag != IDialogConstants.YES_ID
 				&& continuationFlag != IDialogConstants.YES_TO_ALL_ID) {
 			return;
@@ -141,73 +200,108 @@ public class DeleteModelAction extends Action implements INavigationAction {
 				return;
 			if (a == IDialogConstants.NO_ID)
 				continue;
+			selected.add(elem);
+		}
+	}
 
-			if (delete(elem)) {
-				var typeElement = Navigator.findElement(category.modelType);
-				Navigator.refresh(typeElement);
+	private void collectContent(CategoryElement element,
+			List<RootDescriptor> all, Map<ModelType, TLongHashSet> seen) {
+		for (INavigationElement<?> child : element.getChildren()) {
+			if (child instanceof CategoryElement cat) {
+				collectContent(cat, all, seen);
+			} else if (child instanceof ModelElement mod) {
+				add(mod.getContent(), all, seen);
 			}
 		}
 	}
 
-	private boolean isUsed(RootDescriptor d) {
-		var search = UsageSearch.of(d.type, Database.get());
-		var descriptors = search.find(d.id);
-		if (descriptors.isEmpty())
+	private void add(RootDescriptor d, List<RootDescriptor> all,
+			Map<ModelType, TLongHashSet> seen) {
+		if (d == null || d.type == null)
+			return;
+		var ids = seen.computeIfAbsent(d.type, t -> new TLongHashSet());
+		if (ids.add(d.id)) {
+			all.add(d);
+		}
+	}
+
+	private boolean isBlocked(
+			RootDescriptor d, Map<ModelType, TLongHashSet> blocked) {
+		if (d == null)
 			return false;
-		if (showInUseMessage) {
-			var dialog = MessageDialogWithToggle.openError(
-					UI.shell(),
-					M.CannotDelete,
-					d.name + ": " + M.CannotDeleteMessage,
-					M.DoNotShowThisMessageAgain,
-					false,
-					null,
-					null);
-			showInUseMessage = !dialog.getToggleState();
-		}
-		return true;
+		var ids = blocked.get(d.type);
+		return ids != null && ids.contains(d.id);
 	}
 
-	private void delete(Descriptor d) {
+	/**
+	 * Deletes the given models in a single transaction. The models and their
+	 * owned entities are deleted with set-based statements per chunk of IDs,
+	 * see {@link BulkDelete}.
+	 */
+	private void deleteAll(IDatabase db, List<RootDescriptor> descriptors) {
+		var ids = new EnumMap<ModelType, List<Long>>(ModelType.class);
+		for (var d : descriptors) {
+			ids.computeIfAbsent(d.type, t -> new ArrayList<>()).add(d.id);
+		}
+		var em = db.getEntityFactory().createEntityManager();
+		var tx = em.getTransaction();
 		try {
-			log.trace("delete model {}", d);
-			var db = Database.get();
-			var instance = db.get(d.type.getModelClass(), d.id);
-			db.delete(instance);
-			Cache.evict(d);
-			DatabaseDir.deleteDir(d);
+			tx.begin();
+			var bulk = new BulkDelete(em);
+			for (var e : ids.entrySet()) {
+				var clazz = e.getKey().getModelClass();
+				if (clazz == null)
+					continue;
+				bulk.delete(clazz, e.getValue());
+				log.trace("deleted {} models of type {}",
+						e.getValue().size(), e.getKey());
+			}
+			tx.commit();
 		} catch (Exception e) {
-			ErrorReporter.on("failed to delete " + d, e);
+			if (tx.isActive()) {
+				tx.rollback();
+			}
+			throw new RuntimeException("failed to delete models", e);
+		} finally {
+			em.close();
+		}
+	}
+
+	private void evict(List<RootDescriptor> deleted) {
+		if (deleted.size() > EVICT_ALL_THRESHOLD) {
+			Cache.evictAll();
+			return;
+		}
+		for (var d : deleted) {
+			Cache.evict(d);
 		}
 	}
 
-	private boolean delete(CategoryElement element) {
+	/**
+	 * Deletes the given category if it does not contain any blocked model.
+	 * The sub-categories are deleted before their parents.
+	 */
+	private boolean delete(CategoryElement element,
+			Map<ModelType, TLongHashSet> blocked, TLongHashSet deleted) {
 
-		// delete the category content
 		boolean canBeDeleted = true;
 		for (INavigationElement<?> child : element.getChildren()) {
 			if (child instanceof CategoryElement cat) {
-				boolean deleted = delete(cat);
-				if (!deleted) {
+				if (!delete(cat, blocked, deleted)) {
 					canBeDeleted = false;
 				}
 			} else if (child instanceof ModelElement mod) {
-				var model = mod.getContent();
-				if (isUsed(model)) {
+				if (isBlocked(mod.getContent(), blocked)) {
 					canBeDeleted = false;
-					continue;
 				}
-				App.close(model);
-				delete(model);
 			}
 		}
-
-		// delete the category
-		if (!canBeDeleted) {
-			Navigator.refresh(element);
+		if (!canBeDeleted)
 			return false;
-		}
+
 		var category = element.getContent();
+		if (deleted.contains(category.id))
+			return true;
 		try {
 			var dao = new CategoryDao(Database.get());
 			var parent = category.category;
@@ -217,6 +311,7 @@ public class DeleteModelAction extends Action implements INavigationAction {
 				dao.update(parent);
 			}
 			dao.delete(category);
+			deleted.add(category.id);
 			Cache.evict(Descriptor.of(category));
 			return true;
 		} catch (Exception e) {
@@ -225,6 +320,33 @@ public class DeleteModelAction extends Action implements INavigationAction {
 		}
 	}
 
+	private void reportBlocked(
+			List<RootDescriptor> all, Map<ModelType, TLongHashSet> blocked) {
+		var names = new ArrayList<String>();
+		for (var d : all) {
+			if (isBlocked(d, blocked)) {
+				names.add(Labels.name(d));
+			}
+		}
+		if (names.isEmpty())
+			return;
+		names.sort(String.CASE_INSENSITIVE_ORDER);
+		var text = new StringBuilder("The following data sets cannot be "
+				+ "deleted because they are used in other data sets:\n");
+		int max = Math.min(names.size(), MAX_REPORTED);
+		for (int i = 0; i < max; i++) {
+			text.append("\n- ").append(names.get(i));
+		}
+		if (names.size() > max) {
+			text.append("\n... and ")
+					.append(names.size() - max)
+					.append(" more");
+		}
+		log.info("{} models could not be deleted as they are used",
+				names.size());
+		MsgBox.error(M.CannotDelete, text.toString());
+	}
+
 	private int askDelete(String name) {
 		String message = NLS.bind(M.DoYouReallyWantToDelete, name);
 		return Question.askWithAll(M.Delete, message);
@@ -0,0 +1,122 @@
+package org.openlca.app.navigation.actions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.usage.UsageSearch;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.RootDescriptor;
+
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * Finds the models of a set of models to be deleted that are used by other
+ * models. Instead of searching the usages of each model separately, the
+ * usages of all models of a type are searched in one query (per chunk of IDs).
+ * Only if there are usages, the IDs are split to find the used models; small
+ * chunks are not split further but each model is checked directly. Usages
+ * by models that are also deleted are ignored, unless these models are
+ * blocked themselves.
+ */
+class UsageAnalysis {
+
+	private static final int CHUNK_SIZE = 1000;
+
+	/** Chunks with usages of this size or smaller are checked model by model. */
+	private static final int MIN_SPLIT_SIZE = 16;
+
+	private final IDatabase db;
+	private final Map<ModelType, TLongHashSet> candidates =
+			new EnumMap<>(ModelType.class);
+	private final Map<ModelType, TLongHashSet> blocked =
+			new EnumMap<>(ModelType.class);
+
+	private UsageAnalysis(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Returns the IDs of the models that cannot be deleted, grouped by type.
+	 */
+	static Map<ModelType, TLongHashSet> blockedOf(
+			IDatabase db, Collection<RootDescriptor> models) {
+		var analysis = new UsageAnalysis(db);
+		for (var d : models) {
+			if (d == null || d.type == null)
+				continue;
+			analysis.candidates
+					.computeIfAbsent(d.type, t -> new TLongHashSet())
+					.add(d.id);
+		}
+		analysis.run();
+		return analysis.blocked;
+	}
+
+	private void run() {
+		// when a model is blocked, the models it uses are blocked too;
+		// thus, we repeat the analysis until no new blocked models are found
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (var e : candidates.entrySet()) {
+				var search = UsageSearch.of(e.getKey(), db);
+				if (search == null)
+					continue;
+				var ids = e.getValue().toArray();
+				var found = new TLongHashSet();
+				for (int i = 0; i < ids.length; i += CHUNK_SIZE) {
+					var chunk = Arrays.copyOfRange(
+							ids, i, Math.min(i + CHUNK_SIZE, ids.length));
+					findBlocked(search, chunk, found);
+				}
+				if (found.isEmpty())
+					continue;
+				changed = true;
+				e.getValue().removeAll(found);
+				blocked.computeIfAbsent(e.getKey(), t -> new TLongHashSet())
+						.addAll(found);
+			}
+		}
+	}
+
+	/**
+	 * Adds the IDs of the given models that are used by models which are not
+	 * deleted to the given set.
+	 */
+	private void findBlocked(UsageSearch search, long[] ids, TLongHashSet found) {
+		if (ids.length == 0)
+			return;
+		if (!hasExternalUsages(search.find(ids)))
+			return;
+		if (ids.length == 1) {
+			found.add(ids[0]);
+			return;
+		}
+		if (ids.length <= MIN_SPLIT_SIZE) {
+			for (long id : ids) {
+				if (hasExternalUsages(search.find(id))) {
+					found.add(id);
+				}
+			}
+			return;
+		}
+		int mid = ids.length / 2;
+		findBlocked(search, Arrays.copyOfRange(ids, 0, mid), found);
+		findBlocked(search, Arrays.copyOfRange(ids, mid, ids.length), found);
+	}
+
+	private boolean hasExternalUsages(Set<? extends RootDescriptor> users) {
+		if (users == null || users.isEmpty())
+			return false;
+		for (var user : users) {
+			var ids = candidates.get(user.type);
+			if (ids == null || !ids.contains(user.id))
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,103 @@
+package org.openlca.app.navigation.actions.db;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.openlca.jsonld.Json;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * A list of the files of a database backup with their sizes and SHA-256
+ * hashes. It is stored as last entry in a zolca file so that a restored
+ * database can be verified.
+ */
+final class BackupManifest {
+
+	static final String FILE = "olca-backup-manifest.json";
+
+	private final List<Item> items = new ArrayList<>();
+
+	void add(String path, long size, String sha256) {
+		items.add(new Item(path, size, sha256));
+	}
+
+	byte[] toBytes() {
+		var obj = new JsonObject();
+		obj.addProperty("created", Instant.now().toString());
+		obj.addProperty("algorithm", "SHA-256");
+		var array = new JsonArray();
+		for (var item : items) {
+			var json = new JsonObject();
+			json.addProperty("path", item.path);
+			json.addProperty("size", item.size);
+			json.addProperty("hash", item.hash);
+			array.add(json);
+		}
+		obj.add("files", array);
+		return obj.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the manifest from the given database folder. Returns an empty
+	 * option when there is no manifest, e.g. for backups of older versions.
+	 */
+	static Optional<BackupManifest> read(File folder) {
+		var file = new File(folder, FILE);
+		if (!file.exists())
+			return Optional.empty();
+		var obj = Json.readObject(file).orElse(null);
+		if (obj == null)
+			return Optional.empty();
+		var manifest = new BackupManifest();
+		var array = Json.getArray(obj, "files");
+		if (array == null)
+			return Optional.of(manifest);
+		for (var elem : array) {
+			if (!elem.isJsonObject())
+				continue;
+			var json = elem.getAsJsonObject();
+			manifest.add(
+					Json.getString(json, "path"),
+					Json.getLong(json, "size", -1),
+					Json.getString(json, "hash"));
+		}
+		return Optional.of(manifest);
+	}
+
+	/**
+	 * Checks the files in the given folder against this manifest and returns
+	 * the paths of the files that are missing or that have a different size
+	 * or hash. The files are checked in parallel.
+	 */
+	List<String> verify(File folder) {
+		var failed = Collections.synchronizedList(new ArrayList<String>());
+		items.parallelStream().forEach(item -> {
+			if (item.path == null || item.hash == null)
+				return;
+			var file = new File(folder, item.path);
+			try {
+				if (!file.isFile()
+						|| file.length() != item.size
+						|| !item.hash.equals(ParallelZip.sha256Of(file))) {
+					failed.add(item.path);
+				}
+			} catch (Exception e) {
+				LoggerFactory.getLogger(BackupManifest.class)
+						.error("failed to verify file " + file, e);
+				failed.add(item.path);
+			}
+		});
+		return failed;
+	}
+
+	private record Item(String path, long size, String hash) {
+	}
+}
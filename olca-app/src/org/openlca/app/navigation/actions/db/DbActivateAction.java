@@ -188,7 +188,11 @@ public class DbActivateAction extends Action implements INavigationAction {
 					closeDatabase();
 					return;
 				}
-				db = Database.activate(config);
+				// local databases are backed up online, others were
+				// closed for the backup
+				if (!Database.isActive(config)) {
+					db = Database.activate(config);
+				}
 			}
 			var finalDb = db;
 			log.trace("Run database updates");
@@ -2,6 +2,8 @@ package org.openlca.app.navigation.actions.db;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -10,8 +12,10 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.action.Action;
-import org.openlca.app.App;
+import org.eclipse.jface.operation.IRunnableWithProgress;
+import org.eclipse.ui.PlatformUI;
 import org.openlca.app.M;
 import org.openlca.app.collaboration.views.CompareView;
 import org.openlca.app.collaboration.views.HistoryView;
@@ -32,11 +36,9 @@ import org.openlca.app.util.Popup;
 import org.openlca.core.database.config.DatabaseConfig;
 import org.openlca.core.database.config.DerbyConfig;
 import org.openlca.core.database.config.MySqlConfig;
+import org.openlca.util.Dirs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.zeroturnaround.zip.FileSource;
-import org.zeroturnaround.zip.ZipEntrySource;
-import org.zeroturnaround.zip.ZipUtil;
 
 public class DbExportAction extends Action implements INavigationAction {
 
@@ -84,76 +86,183 @@ public class DbExportAction extends Action implements INavigationAction {
 				return false;
 			}
 		}
-		if (active)
+
+		// an active Derby database is backed up online, we just need to save
+		// the open editors; other active databases need to be closed
+		boolean online = active && config instanceof DerbyConfig;
+		if (online) {
+			if (!PlatformUI.getWorkbench().saveAllEditors(true))
+				return false;
+		} else if (active) {
 			if (!Editors.closeAll())
 				return false;
+		}
+
 		log.trace("run database export to file {}", zip);
-		var runner = new ExportRunner(config, zip, active);
-		App.runWithProgress(M.ExportDatabase, runner);
-		updateUI(zip, active);
+		var runner = new ExportRunner(config, zip, active, online);
+		try {
+			PlatformUI.getWorkbench()
+					.getProgressService()
+					.run(true, true, runner);
+		} catch (InvocationTargetException | InterruptedException e) {
+			log.error("Error while running database export", e);
+			return false;
+		}
+		updateUI(zip, active && !online, !runner.failed);
 		return !runner.failed;
 	}
 
-	private class ExportRunner implements Runnable {
+	private class ExportRunner implements IRunnableWithProgress {
 
 		private final DatabaseConfig config;
 		private final File zip;
 		private final boolean active;
+		private final boolean online;
 		private boolean failed;
 
-		private ExportRunner(DatabaseConfig config, File zip, boolean active) {
+		private ExportRunner(
+				DatabaseConfig config, File zip, boolean active, boolean online) {
 			this.config = config;
 			this.zip = zip;
 			this.active = active;
+			this.online = online;
 		}
 
 		@Override
-		public void run() {
+		public void run(IProgressMonitor monitor) {
+			File staging = null;
 			try {
-				if (active)
-					Database.close();
 				if (config instanceof DerbyConfig) {
 					File folder = DatabaseDir.getRootFolder(config.name());
-					ZipEntrySource[] toPack = collectFileSources(folder);
-					ZipUtil.pack(toPack, zip);
+					List<Source> sources;
+					if (online) {
+						monitor.setTaskName(M.ExportDatabase);
+						staging = Files.createTempDirectory("olca-backup").toFile();
+						sources = backup(folder, staging);
+					} else {
+						sources = collectFileSources(folder);
+					}
+					pack(sources, monitor);
 				} else if (config instanceof MySqlConfig) {
+					monitor.beginTask(M.ExportDatabase, IProgressMonitor.UNKNOWN);
+					if (active)
+						Database.close();
 					MySQLDatabaseExport export = new MySQLDatabaseExport((MySqlConfig) config, zip);
 					export.run();
 				}
+			} catch (InterruptedIOException e) {
+				failed = true;
+				log.info("export of database {} canceled", config.name());
+				zip.delete();
 			} catch (Exception e) {
 				failed = true;
+				zip.delete();
 				ErrorReporter.on("Export of database " + config.name() + " failed", e);
+			} finally {
+				if (staging != null) {
+					Dirs.delete(staging);
+				}
+				monitor.done();
 			}
 		}
 
-	}
+		/**
+		 * Creates an online backup of the active database in the staging
+		 * folder and returns the files that should be packed. Derby writes a
+		 * consistent copy of the database while it can be still used; the
+		 * additional files of the database are taken from its folder.
+		 */
+		private List<Source> backup(File folder, File staging) throws Exception {
+			var db = Database.get();
+			try (var con = db.createConnection();
+					var call = con.prepareCall(
+							"CALL SYSCS_UTIL.SYSCS_BACKUP_DATABASE(?)")) {
+				call.setString(1, staging.getAbsolutePath());
+				call.execute();
+			}
+			var copy = new File(staging, folder.getName());
+			if (!copy.isDirectory()) {
+				var dirs = staging.listFiles(File::isDirectory);
+				if (dirs == null || dirs.length != 1)
+					throw new IOException("database backup not found in " + staging);
+				copy = dirs[0];
+			}
+			var sources = new ArrayList<Source>();
+			for (var source : collectFileSources(copy)) {
+				if (!source.path.startsWith(DatabaseDir.FILE_STORAGE + "/")) {
+					sources.add(source);
+				}
+			}
+			for (var source : collectFileSources(folder)) {
+				if (source.path.startsWith(DatabaseDir.FILE_STORAGE + "/")) {
+					sources.add(source);
+				}
+			}
+			return sources;
+		}
 
+		private void pack(List<Source> sources, IProgressMonitor monitor)
+				throws IOException {
+			long total = 0;
+			for (var source : sources) {
+				total += source.file.length();
+			}
+			// the progress is reported in KiB so that it fits into an int
+			monitor.beginTask(M.ExportDatabase, (int) (total >> 10) + 1);
+			var done = new long[1];
+			int threads = Runtime.getRuntime().availableProcessors();
+			var manifest = new BackupManifest();
+			try (var writer = new ParallelZip(zip, threads)) {
+				writer.cancelWhen(monitor::isCanceled).onProgress(bytes -> {
+					long before = done[0] >> 10;
+					done[0] += bytes;
+					int worked = (int) ((done[0] >> 10) - before);
+					if (worked > 0) {
+						monitor.worked(worked);
+					}
+				});
+				for (var source : sources) {
+					monitor.subTask(source.path);
+					long size = source.file.length();
+					var hash = writer.add(source.path, source.file);
+					manifest.add(source.path, size, hash);
+				}
+				writer.add(BackupManifest.FILE, manifest.toBytes());
+				writer.finish();
+			}
+		}
+	}
 
-	private ZipEntrySource[] collectFileSources(File folder) throws IOException {
-		List<ZipEntrySource> fileSources = new ArrayList<>();
+	private List<Source> collectFileSources(File folder) throws IOException {
+		List<Source> fileSources = new ArrayList<>();
 		Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<>() {
 			@Override
 			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
 				String relativePath = folder.toPath().relativize(file).toString();
 				if (exclude(relativePath))
 					return FileVisitResult.CONTINUE;
-				fileSources.add(new FileSource(relativePath.replace("\\", "/"), file.toFile()));
+				fileSources.add(new Source(relativePath.replace("\\", "/"), file.toFile()));
 				return FileVisitResult.CONTINUE;
 			}
 		});
-		return fileSources.toArray(new ZipEntrySource[0]);
+		return fileSources;
 	}
 
 	private boolean exclude(String relativePath) {
 		return relativePath.startsWith(DatabaseDir.FILE_STORAGE + File.separator + Repository.GIT_DIR);
 	}
 
-	private void updateUI(File zip, boolean active) {
-		if (active) {
+	private void updateUI(File zip, boolean closed, boolean success) {
+		if (closed) {
 			Navigator.refresh();
 			CompareView.clear();
 		}
 		HistoryView.refresh();
-		Popup.info(M.ExportDone, M.DatabaseWasExportedToFile + ": " + zip.getName());
+		if (success) {
+			Popup.info(M.ExportDone, M.DatabaseWasExportedToFile + ": " + zip.getName());
+		}
+	}
+
+	private record Source(String path, File file) {
 	}
 }
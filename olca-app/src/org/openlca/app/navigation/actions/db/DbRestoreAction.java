@@ -26,7 +26,9 @@ import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.core.database.config.DerbyConfig;
+import org.openlca.util.Dirs;
 import org.openlca.util.Strings;
+import org.slf4j.LoggerFactory;
 import org.zeroturnaround.zip.ZipUtil;
 
 public class DbRestoreAction extends Action implements INavigationAction {
@@ -103,15 +105,26 @@ public class DbRestoreAction extends Action implements INavigationAction {
 	private static void realImport(
 			File dbFolder, String dbName, File zip, String naviFolder) {
 		var err = new AtomicBoolean(false);
+		var corrupt = new AtomicBoolean(false);
 		App.run(M.ImportDatabase, () -> {
 			try {
 				var folder = new File(dbFolder, dbName);
 				Files.createDirectories(folder.toPath());
 				ZipUtil.unpack(zip, folder);
+				if (!verify(folder)) {
+					corrupt.set(true);
+					Dirs.delete(folder);
+				}
 			} catch (Exception e) {
 				err.set(true);
 			}
 		}, () -> {
+			if (corrupt.get()) {
+				MsgBox.error("Failed to restore database", "The backup file "
+						+ zip.getName() + " is corrupt: the restored files do"
+						+ " not match the checksums of the backup.");
+				return;
+			}
 			if (err.get()) {
 				MsgBox.error("Failed to create database");
 				return;
@@ -126,4 +139,21 @@ public class DbRestoreAction extends Action implements INavigationAction {
 			Navigator.refresh();
 		});
 	}
+
+	/**
+	 * Checks the restored files against the checksum manifest of the backup,
+	 * if present, and removes the manifest from the database folder.
+	 */
+	private static boolean verify(File folder) {
+		var manifest = BackupManifest.read(folder).orElse(null);
+		if (manifest == null)
+			return true;
+		var failed = manifest.verify(folder);
+		if (!failed.isEmpty()) {
+			LoggerFactory.getLogger(DbRestoreAction.class)
+					.error("restored files do not match the backup: {}", failed);
+			return false;
+		}
+		return new File(folder, BackupManifest.FILE).delete();
+	}
 }
@@ -0,0 +1,474 @@
+package org.openlca.app.navigation.actions.db;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A zip writer that compresses the entries in parallel. Like pigz, the data of
+ * an entry is split into chunks that are deflated independently by a pool of
+ * worker threads (with the tail of the previous chunk as dictionary) and that
+ * are then written in order as a single deflate stream. Checksums are
+ * calculated sequentially while reading the data. Zip64 extensions are used
+ * when an entry, the archive, or the number of entries exceed the limits of
+ * the standard zip format.
+ */
+final class ParallelZip implements Closeable {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+	private static final int DICT_SIZE = 1 << 15;
+
+	/**
+	 * Entries with at least this size get a Zip64 extra field in their local
+	 * header; we cannot decide this after writing the header and deflated data
+	 * can be slightly larger than the input.
+	 */
+	private static final long ZIP64_THRESHOLD = 0xF0000000L;
+	private static final long MAX_32 = 0xFFFFFFFFL;
+
+	private final FileChannel channel;
+	private final OutputStream out;
+	private final ExecutorService pool;
+	private final int maxPending;
+	private final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+	private final List<Entry> entries = new ArrayList<>();
+
+	private long position;
+	private LongConsumer progress;
+	private BooleanSupplier canceled;
+
+	ParallelZip(File file, int threads) throws IOException {
+		channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+		int n = Math.max(1, threads);
+		pool = Executors.newFixedThreadPool(n, r -> {
+			var thread = new Thread(r, "zip-deflater");
+			thread.setDaemon(true);
+			return thread;
+		});
+		maxPending = 2 * n + 2;
+	}
+
+	/**
+	 * Sets a function that is called with the number of uncompressed bytes
+	 * after they were written to the archive.
+	 */
+	ParallelZip onProgress(LongConsumer fn) {
+		this.progress = fn;
+		return this;
+	}
+
+	/**
+	 * Sets a function that is checked regularly; when it returns true, writing
+	 * is aborted with an {@link InterruptedIOException}.
+	 */
+	ParallelZip cancelWhen(BooleanSupplier fn) {
+		this.canceled = fn;
+		return this;
+	}
+
+	/**
+	 * Adds the given file under the given name to the archive and returns the
+	 * SHA-256 hash of its content as hex string.
+	 */
+	String add(String name, File file) throws IOException {
+		try (var in = new FileInputStream(file)) {
+			return add(name, in, file.length(), file.lastModified());
+		}
+	}
+
+	/**
+	 * Adds the given data under the given name to the archive and returns the
+	 * SHA-256 hash of the data as hex string.
+	 */
+	String add(String name, byte[] data) throws IOException {
+		try (var in = new ByteArrayInputStream(data)) {
+			return add(name, in, data.length, System.currentTimeMillis());
+		}
+	}
+
+	private String add(String name, InputStream in, long size, long time)
+			throws IOException {
+		var entry = new Entry(name, size >= ZIP64_THRESHOLD, time);
+		entries.add(entry);
+		var crc = new CRC32();
+		var sha = sha256();
+
+		byte[] dict = null;
+		byte[] chunk = readChunk(in);
+		boolean first = true;
+		while (true) {
+			checkCanceled();
+			byte[] next = chunk.length == CHUNK_SIZE
+					? readChunk(in)
+					: new byte[0];
+			boolean last = next.length == 0;
+			crc.update(chunk);
+			sha.update(chunk);
+			entry.size += chunk.length;
+			if (last) {
+				entry.crc = crc.getValue();
+			}
+
+			var data = chunk;
+			var prefix = dict;
+			var future = pool.submit(() -> deflate(data, prefix, last));
+			enqueue(new Chunk(entry, future, data.length, first, last));
+			if (last)
+				break;
+
+			dict = Arrays.copyOfRange(
+					chunk, chunk.length - DICT_SIZE, chunk.length);
+			chunk = next;
+			first = false;
+		}
+
+		if (!entry.zip64 && entry.size > MAX_32)
+			throw new IOException("the size of " + name
+					+ " changed while it was written to the archive");
+		return hex(sha.digest());
+	}
+
+	private byte[] readChunk(InputStream in) throws IOException {
+		var buffer = new byte[CHUNK_SIZE];
+		int n = in.readNBytes(buffer, 0, CHUNK_SIZE);
+		return n == CHUNK_SIZE
+				? buffer
+				: Arrays.copyOf(buffer, n);
+	}
+
+	private static byte[] deflate(byte[] data, byte[] dict, boolean last) {
+		var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			if (dict != null) {
+				deflater.setDictionary(dict);
+			}
+			deflater.setInput(data);
+			var out = new ByteArrayOutputStream(data.length / 2 + 64);
+			var buffer = new byte[1 << 16];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					int n = deflater.deflate(buffer);
+					out.write(buffer, 0, n);
+				}
+			} else {
+				// a sync-flush ends the block on a byte boundary without
+				// setting the final bit, so that the next chunk can continue
+				// the stream
+				int n;
+				do {
+					n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					out.write(buffer, 0, n);
+				} while (n == buffer.length);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private void enqueue(Chunk chunk) throws IOException {
+		pending.add(chunk);
+		while (pending.size() >= maxPending) {
+			write(pending.poll());
+		}
+	}
+
+	private void write(Chunk chunk) throws IOException {
+		byte[] data;
+		try {
+			data = chunk.data.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("writing zip file interrupted");
+		} catch (ExecutionException e) {
+			throw new IOException("failed to compress " + chunk.entry.name, e.getCause());
+		}
+
+		var entry = chunk.entry;
+		if (chunk.first) {
+			entry.offset = position;
+			// for single-chunk entries, we know everything when writing the
+			// header; otherwise, we update the header when the entry is done
+			if (chunk.last) {
+				entry.compressedSize = data.length;
+			}
+			writeLocalHeader(entry);
+		}
+		out.write(data);
+		position += data.length;
+		if (!chunk.first || !chunk.last) {
+			entry.compressedSize += data.length;
+		}
+		if (chunk.last && !chunk.first) {
+			updateLocalHeader(entry);
+		}
+		if (progress != null) {
+			progress.accept(chunk.size);
+		}
+	}
+
+	private void writeLocalHeader(Entry e) throws IOException {
+		var name = e.name.getBytes(StandardCharsets.UTF_8);
+		var buf = buffer(30 + name.length + (e.zip64 ? 20 : 0));
+		buf.putInt(0x04034b50);
+		buf.putShort((short) (e.zip64 ? 45 : 20));
+		buf.putShort((short) (1 << 11)); // UTF-8 names
+		buf.putShort((short) Deflater.DEFLATED);
+		buf.putInt(e.dosTime);
+		buf.putInt((int) e.crc);
+		if (e.zip64) {
+			buf.putInt((int) MAX_32);
+			buf.putInt((int) MAX_32);
+		} else {
+			buf.putInt((int) e.compressedSize);
+			buf.putInt((int) e.size);
+		}
+		buf.putShort((short) name.length);
+		buf.putShort((short) (e.zip64 ? 20 : 0));
+		buf.put(name);
+		if (e.zip64) {
+			buf.putShort((short) 0x0001);
+			buf.putShort((short) 16);
+			buf.putLong(e.size);
+			buf.putLong(e.compressedSize);
+		}
+		put(buf);
+	}
+
+	private void updateLocalHeader(Entry e) throws IOException {
+		out.flush();
+		var crc = buffer(4);
+		crc.putInt((int) e.crc);
+		channel.write(crc.flip(), e.offset + 14);
+		if (e.zip64) {
+			var nameLength = e.name.getBytes(StandardCharsets.UTF_8).length;
+			var sizes = buffer(16);
+			sizes.putLong(e.size);
+			sizes.putLong(e.compressedSize);
+			channel.write(sizes.flip(), e.offset + 30 + nameLength + 4);
+		} else {
+			var sizes = buffer(8);
+			sizes.putInt((int) e.compressedSize);
+			sizes.putInt((int) e.size);
+			channel.write(sizes.flip(), e.offset + 18);
+		}
+	}
+
+	private void writeCentralDirectory() throws IOException {
+		long start = position;
+		for (var e : entries) {
+			var name = e.name.getBytes(StandardCharsets.UTF_8);
+			boolean bigSize = e.size >= MAX_32;
+			boolean bigCompressed = e.compressedSize >= MAX_32;
+			boolean bigOffset = e.offset >= MAX_32;
+			int extra = (bigSize ? 8 : 0)
+					+ (bigCompressed ? 8 : 0)
+					+ (bigOffset ? 8 : 0);
+			boolean zip64 = extra > 0;
+			var buf = buffer(46 + name.length + (zip64 ? extra + 4 : 0));
+			buf.putInt(0x02014b50);
+			buf.putShort((short) (zip64 ? 45 : 20));
+			buf.putShort((short) (zip64 || e.zip64 ? 45 : 20));
+			buf.putShort((short) (1 << 11));
+			buf.putShort((short) Deflater.DEFLATED);
+			buf.putInt(e.dosTime);
+			buf.putInt((int) e.crc);
+			buf.putInt((int) (bigCompressed ? MAX_32 : e.compressedSize));
+			buf.putInt((int) (bigSize ? MAX_32 : e.size));
+			buf.putShort((short) name.length);
+			buf.putShort((short) (zip64 ? extra + 4 : 0));
+			buf.putShort((short) 0); // comment
+			buf.putShort((short) 0); // disk
+			buf.putShort((short) 0); // internal attributes
+			buf.putInt(0); // external attributes
+			buf.putInt((int) (bigOffset ? MAX_32 : e.offset));
+			buf.put(name);
+			if (zip64) {
+				buf.putShort((short) 0x0001);
+				buf.putShort((short) extra);
+				if (bigSize) {
+					buf.putLong(e.size);
+				}
+				if (bigCompressed) {
+					buf.putLong(e.compressedSize);
+				}
+				if (bigOffset) {
+					buf.putLong(e.offset);
+				}
+			}
+			put(buf);
+		}
+		long size = position - start;
+
+		int count = entries.size();
+		boolean zip64 = count >= 0xFFFF || start >= MAX_32 || size >= MAX_32;
+		if (zip64) {
+			long recordOffset = position;
+			var rec = buffer(56 + 20);
+			rec.putInt(0x06064b50);
+			rec.putLong(44);
+			rec.putShort((short) 45);
+			rec.putShort((short) 45);
+			rec.putInt(0);
+			rec.putInt(0);
+			rec.putLong(count);
+			rec.putLong(count);
+			rec.putLong(size);
+			rec.putLong(start);
+			// locator
+			rec.putInt(0x07064b50);
+			rec.putInt(0);
+			rec.putLong(recordOffset);
+			rec.putInt(1);
+			put(rec);
+		}
+
+		var end = buffer(22);
+		end.putInt(0x06054b50);
+		end.putShort((short) 0);
+		end.putShort((short) 0);
+		end.putShort((short) (zip64 ? 0xFFFF : count));
+		end.putShort((short) (zip64 ? 0xFFFF : count));
+		end.putInt((int) (zip64 ? MAX_32 : size));
+		end.putInt((int) (zip64 ? MAX_32 : start));
+		end.putShort((short) 0);
+		put(end);
+	}
+
+	private ByteBuffer buffer(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private void put(ByteBuffer buf) throws IOException {
+		out.write(buf.array(), 0, buf.position());
+		position += buf.position();
+	}
+
+	private void checkCanceled() throws InterruptedIOException {
+		if (canceled != null && canceled.getAsBoolean())
+			throw new InterruptedIOException("writing zip file canceled");
+	}
+
+	/**
+	 * Writes the pending chunks and the central directory and closes the
+	 * file.
+	 */
+	void finish() throws IOException {
+		while (!pending.isEmpty()) {
+			write(pending.poll());
+		}
+		writeCentralDirectory();
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		pool.shutdownNow();
+		pending.clear();
+		out.close();
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported", e);
+		}
+	}
+
+	static String hex(byte[] bytes) {
+		var s = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			s.append(Character.forDigit((b >> 4) & 0xF, 16))
+					.append(Character.forDigit(b & 0xF, 16));
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Calculates the SHA-256 hash of the given file as hex string.
+	 */
+	static String sha256Of(File file) throws IOException {
+		var sha = sha256();
+		try (var in = new FileInputStream(file)) {
+			var buffer = new byte[1 << 16];
+			int n;
+			while ((n = in.read(buffer)) > 0) {
+				sha.update(buffer, 0, n);
+			}
+		}
+		return hex(sha.digest());
+	}
+
+	private static class Entry {
+
+		final String name;
+		final boolean zip64;
+		final int dosTime;
+
+		long offset;
+		long crc;
+		long size;
+		long compressedSize;
+
+		Entry(String name, boolean zip64, long time) {
+			this.name = name;
+			this.zip64 = zip64;
+			this.dosTime = dosTime(time);
+		}
+
+		private static int dosTime(long millis) {
+			var t = LocalDateTime.ofInstant(
+					Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+			int year = t.getYear();
+			if (year < 1980)
+				return (1 << 21) | (1 << 16);
+			return (year - 1980) << 25
+					| t.getMonthValue() << 21
+					| t.getDayOfMonth() << 16
+					| t.getHour() << 11
+					| t.getMinute() << 5
+					| t.getSecond() >> 1;
+		}
+	}
+
+	private record Chunk(
+			Entry entry, Future<byte[]> data, int size,
+			boolean first, boolean last) {
+	}
+}
@@ -25,7 +25,7 @@ public class ModelElement extends NavigationElement<RootDescriptor> {
 	@Override
 	public void update() {
 		var content = getContent();
-		var newContent = Cache.getEntityCache().get(
+		var newContent = Cache.get(
 			content.getClass(), content.id);
 		setContent(newContent);
 		super.update();
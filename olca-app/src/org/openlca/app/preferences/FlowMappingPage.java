@@ -0,0 +1,34 @@
+package org.openlca.app.preferences;
+
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+public class FlowMappingPage extends FieldEditorPreferencePage implements
+		IWorkbenchPreferencePage {
+
+	public FlowMappingPage() {
+		super(FieldEditorPreferencePage.GRID);
+		setDescription("When generating a flow mapping, only target flows that"
+				+ " share at least the given percentage of the word stems of the"
+				+ " shorter flow name with a source flow are compared in detail."
+				+ " A value of 0 compares all target flows, which is exact but"
+				+ " slow for large databases.");
+	}
+
+	@Override
+	public void init(IWorkbench workbench) {
+		setPreferenceStore(Preferences.getStore());
+	}
+
+	@Override
+	protected void createFieldEditors() {
+		var field = new IntegerFieldEditor(
+				Preferences.MAPPING_RECALL_THRESHOLD,
+				"Shared word stems (%)", getFieldEditorParent());
+		field.setValidRange(0, 100);
+		addField(field);
+	}
+
+}
@@ -14,11 +14,36 @@ public final class Preferences extends AbstractPreferenceInitializer {
 	public static final String FORMAT_INPUT_VALUES = "FORMAT_INPUT_VALUES";
 	public static final String LAST_EXPORT_FOLDER = "LAST_EXPORT_FOLDER";
 
+	/**
+	 * The maximum number of Python interpreters with loaded bindings that are
+	 * kept for running scripts.
+	 */
+	public static final String PYTHON_POOL_SIZE = "PYTHON_POOL_SIZE";
+
+	/**
+	 * The number of threads that are used for calculating the variants of a
+	 * project in parallel.
+	 */
+	public static final String PROJECT_CALCULATION_THREADS =
+			"PROJECT_CALCULATION_THREADS";
+
+	/**
+	 * The percentage of the word stems of the shorter flow name that a target
+	 * flow needs to share with a source flow so that it is scored in the
+	 * generation of a flow mapping. A value of 0 scores all target flows.
+	 */
+	public static final String MAPPING_RECALL_THRESHOLD =
+			"MAPPING_RECALL_THRESHOLD";
+
 	@Override
 	public void initializeDefaultPreferences() {
 		IPreferenceStore store = getStore();
 		store.setDefault(NUMBER_ACCURACY, 5);
 		store.setDefault(FORMAT_INPUT_VALUES, true);
+		store.setDefault(PYTHON_POOL_SIZE, 2);
+		store.setDefault(PROJECT_CALCULATION_THREADS,
+				Math.min(4, Runtime.getRuntime().availableProcessors()));
+		store.setDefault(MAPPING_RECALL_THRESHOLD, 50);
 	}
 
 	public static void init() {
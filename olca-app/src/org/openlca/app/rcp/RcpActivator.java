@@ -82,6 +82,7 @@ public class RcpActivator extends AbstractUIPlugin {
 		} catch (Exception e) {
 			log.error("Failed to close database", e);
 		}
+		LoggerConfig.shutDown();
 		plugin = null;
 		super.stop(context);
 	}
@@ -1,5 +1,8 @@
 package org.openlca.app.results.analysis.sankey.model;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.openlca.app.results.analysis.sankey.SankeyConfig;
 import org.openlca.app.results.analysis.sankey.SankeyEditor;
 import org.openlca.app.tools.graphics.model.BaseComponent;
@@ -12,6 +15,12 @@ public class Diagram extends BaseComponent {
 	public final int orientation;
 	private SankeyNode referenceNode;
 
+	/**
+	 * An index of the diagram nodes by their Sankey nodes. It is kept in sync
+	 * with the children of the diagram.
+	 */
+	private final Map<Sankey.Node, SankeyNode> nodes = new HashMap<>();
+
 	public Diagram(SankeyEditor editor, int orientation) {
 		this.editor = editor;
 		this.orientation = orientation;
@@ -22,13 +31,52 @@ public class Diagram extends BaseComponent {
 	}
 
 	public SankeyNode getNode(Sankey.Node node) {
-		for (var child : getChildren()) {
-			if (child instanceof SankeyNode sankeyNode) {
-				if (sankeyNode.node.equals(node))
-					return sankeyNode;
+		return node != null
+				? nodes.get(node)
+				: null;
+	}
+
+	@Override
+	public void addChild(Component child, int index) {
+		index(child);
+		super.addChild(child, index);
+	}
+
+	@Override
+	public void addChildQuietly(Component child) {
+		index(child);
+		super.addChildQuietly(child);
+	}
+
+	@Override
+	public boolean removeChild(Component child) {
+		if (!super.removeChild(child))
+			return false;
+		unindex(child);
+		return true;
+	}
+
+	@Override
+	public boolean removeChildQuietly(Component child) {
+		if (!super.removeChildQuietly(child))
+			return false;
+		unindex(child);
+		return true;
+	}
+
+	private void index(Component child) {
+		if (child instanceof SankeyNode sankeyNode) {
+			nodes.put(sankeyNode.node, sankeyNode);
+		}
+	}
+
+	private void unindex(Component child) {
+		if (child instanceof SankeyNode sankeyNode) {
+			nodes.remove(sankeyNode.node, sankeyNode);
+			if (sankeyNode.equals(referenceNode)) {
+				referenceNode = null;
 			}
 		}
-		return null;
 	}
 
 	public SankeyNode getReferenceNode() {
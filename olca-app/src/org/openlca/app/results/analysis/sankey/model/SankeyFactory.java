@@ -1,7 +1,10 @@
 package org.openlca.app.results.analysis.sankey.model;
 
+import java.util.ArrayList;
+
 import org.openlca.app.App;
 import org.openlca.app.results.analysis.sankey.SankeyEditor;
+import org.openlca.app.tools.graphics.model.Component;
 import org.openlca.core.results.Sankey;
 
 public class SankeyFactory {
@@ -28,29 +31,33 @@ public class SankeyFactory {
 						.withMaximumNodeCount(config.maxCount())
 						.build()),
 				() -> {
-					if (editor.getSankey() == null)
+					var sankey = editor.getSankey();
+					if (sankey == null)
 						return;
 
-					// create the nodes
-					editor.getSankey().traverse(n -> {
-						var node = new SankeyNode(n, editor.getSankey());
-						diagram.addChild(node);
+					// create the nodes in a single traversal; the nodes are
+					// added quietly, so that the edit parts are refreshed
+					// only once and not for every new node
+					var unit = SankeyNode.unitOf(sankey);
+					var nodes = new ArrayList<SankeyNode>();
+					sankey.traverse(n -> {
+						var node = new SankeyNode(n, sankey, unit);
+						diagram.addChildQuietly(node);
+						nodes.add(node);
 					});
 
-					// create the links
-					editor.getSankey().traverse(n -> {
-						var target = diagram.getNode(n);
-						if (target == null)
-							return;
-						for (var provider : n.providers) {
+					// create the links via the node index of the diagram
+					for (var target : nodes) {
+						for (var provider : target.node.providers) {
 							var source = diagram.getNode(provider);
 							if (source == null)
 								continue;
-							var linkShare = editor.getSankey().getLinkShare(provider, n);
+							var linkShare = sankey.getLinkShare(provider, target.node);
 							var ratio = linkShare * provider.share;
 							new SankeyLink(source, target, ratio);
 						}
-					});
+					}
+					diagram.firePropertyChange(Component.CHILDREN_PROP, null, null);
 				});
 
 		return diagram;
@@ -9,13 +9,14 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.forms.FormDialog;
 import org.eclipse.ui.forms.IManagedForm;
-import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.components.FileChooser;
 import org.openlca.app.util.Colors;
 import org.openlca.app.util.Controls;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.UI;
 import org.openlca.core.results.UpstreamTree;
@@ -190,7 +191,15 @@ class TreeExportDialog extends FormDialog {
 
 		// close the dialog and start the export
 		super.okPressed();
-		App.runWithProgress("Exporting contribution tree ...", export);
+		try {
+			PlatformUI.getWorkbench()
+					.getProgressService()
+					.run(true, true, export);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			ErrorReporter.on("Failed to export contribution tree", e);
+		}
 	}
 
 }
@@ -1,8 +1,18 @@
 package org.openlca.app.results.contributions;
 
-import gnu.trove.list.array.TDoubleArrayList;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.openlca.app.util.CostResultDescriptor;
 import org.openlca.app.util.Labels;
 import org.openlca.core.matrix.index.EnviFlow;
@@ -17,12 +27,13 @@ import org.openlca.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.util.Objects;
-
-class UpstreamTreeExport implements Runnable {
+/**
+ * Writes an upstream tree to an Excel file. The rows are streamed through an
+ * {@link SXSSFWorkbook} so that only a small window of rows is kept in memory.
+ * When the tree does not fit into a single sheet, the export continues on new
+ * sheets.
+ */
+class UpstreamTreeExport implements IRunnableWithProgress {
 
 	/**
 	 * The maximum number of levels that should be exported. A value < 0 means
@@ -45,15 +56,27 @@ class UpstreamTreeExport implements Runnable {
 	 */
 	public int maxRecursionDepth = 10;
 
+	/**
+	 * The maximum row index of a sheet; 1048575 is the maximum row number of
+	 * an Excel sheet.
+	 */
+	private static final int MAX_ROW = 1048574;
+
+	/**
+	 * The number of rows that are kept in memory by the streaming workbook.
+	 */
+	private static final int ROW_WINDOW = 500;
+
 	private final File file;
 	private final UpstreamTree tree;
 
+	private SXSSFWorkbook wb;
+	private CellStyle bold;
 	private Sheet sheet;
+	private int sheetCount;
 	private int row;
 	private int maxColumn;
 	private double totalResult;
-	private final TDoubleArrayList results = new TDoubleArrayList(100);
-	private final TDoubleArrayList direct = new TDoubleArrayList(100);
 
 	UpstreamTreeExport(File file, UpstreamTree tree) {
 		this.file = file;
@@ -61,66 +84,169 @@ class UpstreamTreeExport implements Runnable {
 	}
 
 	@Override
-	public void run() {
+	public void run(IProgressMonitor monitor) throws InvocationTargetException {
 		Logger log = LoggerFactory.getLogger(getClass());
 		if (file == null || tree == null) {
 			log.error("invalid input, file or tree is null");
 			return;
 		}
-		try (var wb = new XSSFWorkbook()) {
-			sheet = wb.createSheet("Upstream tree");
-
-			var bold = Excel.createBoldStyle(wb);
-			Excel.cell(sheet, 0, 0,
-							"Upstream contributions to: " + refName())
-					.ifPresent(c -> c.setCellStyle(bold));
-			Excel.cell(sheet, 1, 0, "Processes")
-					.ifPresent(c -> c.setCellStyle(bold));
-
-			// write the tree
-			row = 1;
-			maxColumn = 0;
+		wb = new SXSSFWorkbook(ROW_WINDOW);
+		wb.setCompressTempFiles(true);
+		try {
+			bold = Excel.createBoldStyle(wb);
 			totalResult = tree.root.result();
-			Path path = new Path(tree.root);
-			traverse(path);
-
-			// write the result values
-			var unit = unit();
-			var resultHeader = Strings.nullOrEmpty(unit)
-					? "Result"
-					: "Result [" + unit + "]";
-			var directHeader = Strings.notEmpty(unit)
-					? "Direct contribution [" + unit + "]"
-					: "Direct contribution";
-			Excel.cell(sheet, 1, maxColumn + 1, resultHeader)
-					.ifPresent(c -> c.setCellStyle(bold));
-			Excel.cell(sheet, 1, maxColumn + 2, directHeader)
-					.ifPresent(c -> c.setCellStyle(bold));
-			for (int i = 0; i < results.size(); i++) {
-				Excel.cell(sheet, i + 2, maxColumn + 1, results.get(i));
-				var d = direct.get(i);
-				if (d != 0) {
-					Excel.cell(sheet, i + 2, maxColumn + 2, d);
-				}
-			}
 
-			// set the column widths
-			for (int col = 0; col < maxColumn; col++) {
-				sheet.setColumnWidth(col, 750);
-			}
-			sheet.setColumnWidth(maxColumn, 50 * 255);
-			sheet.setColumnWidth(maxColumn + 1, 25 * 255);
-			sheet.setColumnWidth(maxColumn + 2, 25 * 255);
+			// the result columns are placed behind the deepest tree level;
+			// as we cannot go back to the streamed rows, we first scan the
+			// tree for its depth and size
+			var progress = SubMonitor.convert(monitor, "Export upstream tree", 2);
+			progress.subTask("Analyze tree");
+			int rows = scan(progress.newChild(1));
+			if (progress.isCanceled())
+				return;
+
+			progress.subTask("Write tree");
+			sheetCount = 0;
+			newSheet();
+			write(progress.newChild(1).setWorkRemaining(rows));
+			if (progress.isCanceled())
+				return;
 
 			// write the file
+			progress.subTask("Write file");
 			try (var fout = new FileOutputStream(file);
 					 var buff = new BufferedOutputStream(fout)) {
 				wb.write(buff);
 			}
 		} catch (Exception e) {
 			log.error("Tree export failed", e);
-			throw new RuntimeException(e);
+			throw new InvocationTargetException(e);
+		} finally {
+			wb.dispose();
+			try {
+				wb.close();
+			} catch (Exception e) {
+				log.warn("failed to close workbook", e);
+			}
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Traverses the tree without writing it and returns the number of rows
+	 * that will be written. Also calculates the maximum tree depth.
+	 */
+	private int scan(IProgressMonitor monitor) {
+		int rows = 0;
+		maxColumn = 0;
+		var stack = new ArrayDeque<Path>();
+		stack.push(new Path(tree.root));
+		while (!stack.isEmpty()) {
+			if (rows % 1000 == 0 && monitor.isCanceled())
+				return rows;
+			var path = stack.pop();
+			if (!accept(path))
+				continue;
+			rows++;
+			maxColumn = Math.max(path.length, maxColumn);
+			expand(path, stack);
+		}
+		return rows;
+	}
+
+	private void write(IProgressMonitor monitor) {
+		var stack = new ArrayDeque<Path>();
+		stack.push(new Path(tree.root));
+		int written = 0;
+		while (!stack.isEmpty()) {
+			var path = stack.pop();
+			if (!accept(path))
+				continue;
+			if (row >= MAX_ROW) {
+				newSheet();
+			}
+			write(path);
+			expand(path, stack);
+			written++;
+			if (written % 1000 == 0) {
+				monitor.worked(1000);
+				if (monitor.isCanceled())
+					return;
+			}
+		}
+	}
+
+	/**
+	 * Pushes the child nodes of the given path on the stack in reverse order
+	 * so that they are visited in the order of the tree.
+	 */
+	private void expand(Path path, ArrayDeque<Path> stack) {
+		var childs = tree.childs(path.node);
+		for (int i = childs.size() - 1; i >= 0; i--) {
+			stack.push(path.append(childs.get(i)));
+		}
+	}
+
+	/**
+	 * Returns true if the node of the given path should be written, otherwise
+	 * the path is cut at this node.
+	 */
+	private boolean accept(Path path) {
+		var node = path.node;
+		double result = node.result();
+		if (result == 0)
+			return false;
+		if (maxDepth > 0 && path.length > maxDepth)
+			return false;
+		if (minContribution > 0 && totalResult != 0) {
+			double c = Math.abs(result / totalResult);
+			if (c < minContribution)
+				return false;
 		}
+		if (maxDepth < 0) {
+			int count = path.count(node.provider());
+			return count <= maxRecursionDepth;
+		}
+		return true;
+	}
+
+	private void newSheet() {
+		sheetCount++;
+		var name = sheetCount == 1
+				? "Upstream tree"
+				: "Upstream tree (" + sheetCount + ")";
+		sheet = wb.createSheet(name);
+		row = 1;
+
+		var title = sheet.createRow(0).createCell(0);
+		title.setCellValue("Upstream contributions to: " + refName());
+		title.setCellStyle(bold);
+
+		var unit = unit();
+		var resultHeader = Strings.nullOrEmpty(unit)
+				? "Result"
+				: "Result [" + unit + "]";
+		var directHeader = Strings.notEmpty(unit)
+				? "Direct contribution [" + unit + "]"
+				: "Direct contribution";
+		var header = sheet.createRow(1);
+		var cell = header.createCell(0);
+		cell.setCellValue("Processes");
+		cell.setCellStyle(bold);
+		cell = header.createCell(maxColumn + 1);
+		cell.setCellValue(resultHeader);
+		cell.setCellStyle(bold);
+		cell = header.createCell(maxColumn + 2);
+		cell.setCellValue(directHeader);
+		cell.setCellStyle(bold);
+
+		// set the column widths
+		for (int col = 0; col < maxColumn; col++) {
+			sheet.setColumnWidth(col, 750);
+		}
+		sheet.setColumnWidth(maxColumn, 50 * 255);
+		sheet.setColumnWidth(maxColumn + 1, 25 * 255);
+		sheet.setColumnWidth(maxColumn + 2, 25 * 255);
 	}
 
 	private String refName() {
@@ -154,53 +280,20 @@ class UpstreamTreeExport implements Runnable {
 		return "";
 	}
 
-	private void traverse(Path path) {
-
-		if (row >= 1048574) {
-			// 1048575 is the maximum row number of an
-			// Excel sheet.
-			return;
-		}
-
-		var node = path.node;
-		double result = path.node.result();
-
-		// first check if we need to cut the path here
-		if (result == 0)
-			return;
-		if (maxDepth > 0 && path.length > maxDepth)
-			return;
-		if (minContribution > 0 && totalResult != 0) {
-			double c = Math.abs(result / totalResult);
-			if (c < minContribution)
-				return;
-		}
-		if (maxDepth < 0) {
-			int count = path.count(node.provider());
-			if (count > maxRecursionDepth) {
-				return;
-			}
-		}
-
-		// write the node and expand the child nodes
-		write(path);
-		for (var child : tree.childs(node)) {
-			traverse(path.append(child));
-		}
-	}
-
 	private void write(Path path) {
 		row++;
-		results.add(path.node.result());
-		direct.add(path.node.directContribution());
-		int col = path.length;
-		maxColumn = Math.max(col, maxColumn);
+		var r = sheet.createRow(row);
 		var node = path.node;
-		if (node.provider() == null
-				|| node.provider().provider() == null)
-			return;
-		var label = Labels.name(node.provider().provider());
-		Excel.cell(sheet, row, col, label);
+		if (node.provider() != null
+				&& node.provider().provider() != null) {
+			var label = Labels.name(node.provider().provider());
+			r.createCell(path.length).setCellValue(label);
+		}
+		r.createCell(maxColumn + 1).setCellValue(node.result());
+		var d = node.directContribution();
+		if (d != 0) {
+			r.createCell(maxColumn + 2).setCellValue(d);
+		}
 	}
 
 	private static class Path {
@@ -225,8 +318,13 @@ class UpstreamTreeExport implements Runnable {
 		}
 
 		int count(TechFlow techFlow) {
-			int c = Objects.equals(techFlow, node.provider()) ? 1 : 0;
-			return prefix != null ? c + prefix.count(techFlow) : c;
+			int c = 0;
+			for (var p = this; p != null; p = p.prefix) {
+				if (Objects.equals(techFlow, p.node.provider())) {
+					c++;
+				}
+			}
+			return c;
 		}
 	}
 
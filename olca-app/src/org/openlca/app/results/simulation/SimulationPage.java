@@ -186,14 +186,23 @@ class SimulationPage extends FormPage {
 		}
 	}
 
-	void updateProgress() {
+	/**
+	 * Updates the page with the current state of the simulation result.
+	 *
+	 * @param runs the number of simulation runs that are finished so far
+	 */
+	void updateProgress(int runs) {
 		if (result == null)
 			return;
 		updateSelection();
-		progressBar.setSelection(progressBar.getSelection() + 1);
+		if (progressBar != null && !progressBar.isDisposed()) {
+			progressBar.setSelection(runs);
+		}
 	}
 
 	void progressDone() {
+		if (progressSection.isDisposed())
+			return;
 		progressSection.dispose();
 		form.reflow(true);
 	}
@@ -14,6 +14,13 @@ import org.openlca.core.math.Simulator;
  */
 class SimulationProgress implements IRunnableWithProgress {
 
+	/**
+	 * The minimum time in milliseconds between two updates of the simulation
+	 * page. The simulation runs are not throttled; only the UI updates are
+	 * coalesced so that fast runs do not flood the display queue.
+	 */
+	private static final long UPDATE_INTERVAL = 100;
+
 	private final Display display;
 	private final int numberOfRuns;
 	private final Simulator solver;
@@ -31,17 +38,20 @@ class SimulationProgress implements IRunnableWithProgress {
 	public void run(IProgressMonitor monitor)
 			throws InvocationTargetException, InterruptedException {
 		monitor.beginTask(M.MonteCarloSimulation + "...", numberOfRuns);
+		long lastUpdate = 0;
 		for (int i = 0; i < numberOfRuns; i++) {
-			if (monitor.isCanceled()) {
-				display.asyncExec(page::progressDone);
+			if (monitor.isCanceled())
 				break;
-			}
 			var result = solver.nextRun();
 			if (result != null) {
 				result.dispose();
 			}
-			display.asyncExec(page::updateProgress);
-			Thread.sleep(10);
+			int runs = i + 1;
+			long now = System.currentTimeMillis();
+			if (runs == numberOfRuns || now - lastUpdate >= UPDATE_INTERVAL) {
+				lastUpdate = now;
+				display.asyncExec(() -> page.updateProgress(runs));
+			}
 		}
 		monitor.done();
 		display.asyncExec(page::progressDone);
@@ -211,7 +211,7 @@ class ResultPage extends FormPage {
 			var link = (ImageHyperlink) e.widget;
 			var data = link.getData();
 			if (data instanceof CategoryDescriptor d) {
-				var c = Cache.getEntityCache().get(Category.class, d.id);
+				var c = Cache.get(Category.class, d.id);
 				Navigator.select(c);
 			} else if (data instanceof RootDescriptor d) {
 				App.open(d);
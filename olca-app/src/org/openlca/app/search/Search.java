@@ -23,8 +23,8 @@ class Search implements Runnable {
 
 	private ModelType typeFilter;
 	private final String rawTerm;
-	private final List<String> words = new ArrayList<>();
-	private final List<String> tags = new ArrayList<>();
+	final List<String> words = new ArrayList<>();
+	final List<String> tags = new ArrayList<>();
 	private final List<Descriptor> result = new ArrayList<>();
 
 	Search(IDatabase db, String term) {
@@ -63,9 +63,12 @@ class Search implements Runnable {
 		var types = typeFilter == null
 				? ModelTypeOrder.getOrderedTypes()
 				: new ModelType[]{typeFilter};
+		var index = SearchIndex.of(db);
 		var matches = new ArrayList<Match>();
 		for (var type : types) {
-			var all = type == ModelType.PARAMETER
+			var all = index != null
+					? index.candidatesOf(type, this)
+					: type == ModelType.PARAMETER
 					? new ParameterDao(db).getGlobalDescriptors()
 					: Daos.root(db, type).getDescriptors();
 			for (var d : all) {
@@ -0,0 +1,525 @@
+package org.openlca.app.search;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openlca.app.navigation.ModelTypeOrder;
+import org.openlca.app.util.Labels;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.database.ParameterDao;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+import jakarta.persistence.Table;
+
+/**
+ * An in-memory inverted index of the descriptors of the active database that
+ * is used by the navigator search. For each model type, it maps the lower-case
+ * tokens of the names and tags, the tags, and the reference IDs of the
+ * descriptors to their IDs. The index of a type is built on first access (or
+ * in the background when a database is activated) and is then updated via the
+ * same hooks that evict entities from the application cache. As not every
+ * change goes through these hooks (e.g. imports, scripts, or SQL updates),
+ * the index of a type is also checked before it is searched: new models are
+ * added, and when the number of models or the latest change date in the
+ * database differ from the index, the index of that type is rebuilt.
+ * <p>
+ * The index only selects the candidates of a search; the final matching and
+ * ranking is still done in {@link Search} so that the search results are the
+ * same as with a full scan of all descriptors.
+ */
+public final class SearchIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+	private static volatile SearchIndex instance;
+
+	private final IDatabase db;
+	private final EnumMap<ModelType, TypeIndex> types =
+			new EnumMap<>(ModelType.class);
+
+	private SearchIndex(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Creates a new search index for the given database and starts building it
+	 * in a background thread. An old index is dropped.
+	 */
+	public static void create(IDatabase db) {
+		if (db == null) {
+			instance = null;
+			return;
+		}
+		var index = new SearchIndex(db);
+		instance = index;
+		var thread = new Thread(() -> {
+			for (var type : ModelTypeOrder.getOrderedTypes()) {
+				if (instance != index)
+					return;
+				index.typeIndex(type);
+			}
+		}, "search-index");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public static void close() {
+		instance = null;
+	}
+
+	/**
+	 * Returns the index for the given database or {@code null} when there is
+	 * no index for that database.
+	 */
+	static SearchIndex of(IDatabase db) {
+		var index = instance;
+		return index != null && index.db == db
+				? index
+				: null;
+	}
+
+	/**
+	 * Updates the index for the given descriptor: the current version of the
+	 * descriptor is loaded from the database and replaces the indexed one. If
+	 * it does not exist anymore, it is removed from the index.
+	 */
+	public static void update(Descriptor d) {
+		var index = instance;
+		if (index == null || d == null)
+			return;
+		if (d.type == null) {
+			index.invalidateAll();
+			return;
+		}
+		index.reload(d.type, d.id);
+	}
+
+	/**
+	 * Drops all indexed data. The index of a type is rebuilt when it is
+	 * accessed the next time.
+	 */
+	public static void invalidate() {
+		var index = instance;
+		if (index != null) {
+			index.invalidateAll();
+		}
+	}
+
+	/**
+	 * Returns the descriptors of the given type that can match the given
+	 * search. These are all descriptors that contain the tokens of the search
+	 * words and the search tags or that have the search word as reference ID.
+	 */
+	List<Descriptor> candidatesOf(ModelType type, Search search) {
+		var idx = currentIndex(type);
+		return idx.candidatesOf(search);
+	}
+
+	/**
+	 * Returns the index of the given type after adding the models that were
+	 * inserted after the index was built. The IDs of new models are taken from
+	 * a sequence, so these are the models with an ID that is larger than the
+	 * largest indexed ID. If the index is still not in sync with the database
+	 * after this, because models were deleted or changed without going through
+	 * the update hooks, it is rebuilt.
+	 */
+	private TypeIndex currentIndex(ModelType type) {
+		var idx = typeIndex(type);
+		try {
+			var state = addNew(type, idx);
+			if (state != null && !idx.isInSync(state)) {
+				log.trace("search index of type {} is stale; rebuild it", type);
+				synchronized (this) {
+					if (types.get(type) == idx) {
+						types.remove(type);
+					}
+				}
+				idx = typeIndex(type);
+			}
+		} catch (Exception e) {
+			log.error("failed to check for new models of type " + type, e);
+		}
+		return idx;
+	}
+
+	/**
+	 * Adds the new models of the given type to the index and returns the
+	 * number of models and their latest change date in the database.
+	 */
+	private State addNew(ModelType type, TypeIndex idx) {
+		long maxId = idx.maxId();
+
+		// global parameters are stored in the same table as local parameters
+		if (type == ModelType.PARAMETER) {
+			long count = 0;
+			long lastChange = 0;
+			for (var d : new ParameterDao(db).getGlobalDescriptors()) {
+				if (d.id > maxId) {
+					idx.add(d);
+				}
+				count++;
+				lastChange = Math.max(lastChange, d.lastChange);
+			}
+			return new State(count, lastChange);
+		}
+
+		var clazz = type.getModelClass();
+		if (clazz == null || !clazz.isAnnotationPresent(Table.class))
+			return null;
+		var table = clazz.getAnnotation(Table.class).name();
+		var ids = new TLongArrayList();
+		var sql = "select id from " + table + " where id > " + maxId;
+		NativeSql.on(db).query(sql, r -> {
+			ids.add(r.getLong(1));
+			return true;
+		});
+		for (int i = 0; i < ids.size(); i++) {
+			var d = db.getDescriptor(clazz, ids.get(i));
+			if (d != null) {
+				idx.add(d);
+			}
+		}
+		if (!ids.isEmpty()) {
+			log.trace("added {} new models of type {} to index", ids.size(), type);
+		}
+
+		var state = new long[2];
+		NativeSql.on(db).query(
+				"select count(*), max(last_change) from " + table, r -> {
+					state[0] = r.getLong(1);
+					state[1] = r.getLong(2);
+					return false;
+				});
+		return new State(state[0], state[1]);
+	}
+
+	/**
+	 * Returns the descriptors of the given type with a name that contains the
+	 * given text, ignoring the case. The candidates are selected from the index
+	 * when there is one for the given database, including the models that were
+	 * inserted after the index was built; otherwise, all descriptors of the
+	 * type are loaded and checked.
+	 */
+	public static List<Descriptor> findByName(
+			IDatabase db, ModelType type, String text) {
+		if (db == null || type == null)
+			return new ArrayList<>();
+		var q = Strings.orEmpty(text).toLowerCase();
+		var index = of(db);
+		List<? extends Descriptor> candidates;
+		if (index != null) {
+			candidates = index.currentIndex(type).candidatesOf(q);
+		} else {
+			var dao = Daos.root(db, type);
+			candidates = dao != null
+					? dao.getDescriptors()
+					: new ArrayList<>();
+		}
+		var matches = new ArrayList<Descriptor>();
+		for (var d : candidates) {
+			if (Labels.name(d).toLowerCase().contains(q)) {
+				matches.add(d);
+			}
+		}
+		return matches;
+	}
+
+	private synchronized void invalidateAll() {
+		types.clear();
+	}
+
+	private void reload(ModelType type, long id) {
+		TypeIndex idx;
+		synchronized (this) {
+			idx = types.get(type);
+		}
+		if (idx == null)
+			return;
+
+		// global and local parameters are stored in the same table; we just
+		// rebuild the parameter index when it is accessed the next time
+		if (type == ModelType.PARAMETER) {
+			synchronized (this) {
+				types.remove(type);
+			}
+			return;
+		}
+
+		var clazz = type.getModelClass();
+		Descriptor d = clazz != null
+				? db.getDescriptor(clazz, id)
+				: null;
+		idx.remove(id);
+		if (d != null) {
+			idx.add(d);
+		}
+	}
+
+	private TypeIndex typeIndex(ModelType type) {
+		synchronized (this) {
+			var idx = types.get(type);
+			if (idx != null)
+				return idx;
+		}
+		var idx = build(type);
+		synchronized (this) {
+			var other = types.get(type);
+			if (other != null)
+				return other;
+			types.put(type, idx);
+			return idx;
+		}
+	}
+
+	private TypeIndex build(ModelType type) {
+		var idx = new TypeIndex();
+		try {
+			var all = type == ModelType.PARAMETER
+					? new ParameterDao(db).getGlobalDescriptors()
+					: Daos.root(db, type).getDescriptors();
+			for (var d : all) {
+				idx.add(d);
+			}
+			log.trace("indexed {} descriptors of type {}", all.size(), type);
+		} catch (Exception e) {
+			log.error("failed to build search index for " + type, e);
+		}
+		return idx;
+	}
+
+	/**
+	 * Splits the given text into its lower-case tokens; a token is a sequence
+	 * of letters or digits.
+	 */
+	static List<String> tokensOf(String text) {
+		var tokens = new ArrayList<String>();
+		if (Strings.nullOrEmpty(text))
+			return tokens;
+		var s = text.toLowerCase();
+		int start = -1;
+		for (int i = 0; i < s.length(); i++) {
+			if (Character.isLetterOrDigit(s.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+				continue;
+			}
+			if (start >= 0) {
+				tokens.add(s.substring(start, i));
+				start = -1;
+			}
+		}
+		if (start >= 0) {
+			tokens.add(s.substring(start));
+		}
+		return tokens;
+	}
+
+	static List<String> tagsOf(String tags) {
+		var list = new ArrayList<String>();
+		if (Strings.nullOrEmpty(tags))
+			return list;
+		for (var tag : tags.split(",")) {
+			var t = tag.strip().toLowerCase();
+			if (Strings.notEmpty(t)) {
+				list.add(t);
+			}
+		}
+		return list;
+	}
+
+	private static class TypeIndex {
+
+		private final TLongObjectHashMap<Descriptor> descriptors =
+				new TLongObjectHashMap<>();
+		private final Map<String, TLongHashSet> tokens = new HashMap<>();
+		private final Map<String, TLongHashSet> tags = new HashMap<>();
+		private final Map<String, TLongHashSet> refIds = new HashMap<>();
+
+		/**
+		 * The indexed keys of a descriptor so that we can remove it from the
+		 * index even when its name or tags changed in the meantime.
+		 */
+		private final TLongObjectHashMap<Keys> keys = new TLongObjectHashMap<>();
+
+		/** The largest ID that was added to the index. */
+		private long maxId;
+
+		/** The latest change date of the indexed descriptors. */
+		private long lastChange;
+
+		synchronized void add(Descriptor d) {
+			if (d == null)
+				return;
+			var k = new Keys(
+					tokensOf(Labels.name(d) + " " + Strings.orEmpty(d.tags)),
+					tagsOf(d.tags),
+					d.refId != null ? d.refId.toLowerCase() : null);
+			descriptors.put(d.id, d);
+			keys.put(d.id, k);
+			maxId = Math.max(maxId, d.id);
+			lastChange = Math.max(lastChange, d.lastChange);
+			for (var token : k.tokens) {
+				put(tokens, token, d.id);
+			}
+			for (var tag : k.tags) {
+				put(tags, tag, d.id);
+			}
+			if (k.refId != null) {
+				put(refIds, k.refId, d.id);
+			}
+		}
+
+		synchronized long maxId() {
+			return maxId;
+		}
+
+		/**
+		 * Returns true when the index contains the same number of models as
+		 * the database and no model in the database was changed after the
+		 * latest indexed change.
+		 */
+		synchronized boolean isInSync(State state) {
+			return state.count == descriptors.size()
+					&& state.lastChange <= lastChange;
+		}
+
+		synchronized void remove(long id) {
+			descriptors.remove(id);
+			var k = keys.remove(id);
+			if (k == null)
+				return;
+			for (var token : k.tokens) {
+				drop(tokens, token, id);
+			}
+			for (var tag : k.tags) {
+				drop(tags, tag, id);
+			}
+			if (k.refId != null) {
+				drop(refIds, k.refId, id);
+			}
+		}
+
+		synchronized List<Descriptor> candidatesOf(Search s) {
+			TLongHashSet ids = null;
+
+			// all tokens of all search words must be contained in the
+			// tokens of the name or tags; as a search word can match
+			// anywhere in a name, we check the vocabulary for tokens
+			// that contain the token of the search word
+			for (var word : s.words) {
+				for (var q : tokensOf(word)) {
+					ids = intersect(ids, tokenMatches(q));
+					if (ids.isEmpty())
+						break;
+				}
+			}
+
+			// all search tags must be present
+			for (var tag : s.tags) {
+				var matches = tags.get(tag);
+				ids = intersect(ids, matches != null
+						? matches
+						: new TLongHashSet());
+			}
+
+			// no restrictions, e.g. when the search words only
+			// contain separators; all descriptors are candidates
+			if (ids == null) {
+				ids = new TLongHashSet(descriptors.keys());
+			}
+
+			// a single search word can also match a reference ID
+			if (s.words.size() == 1) {
+				var refMatches = refIds.get(s.words.get(0));
+				if (refMatches != null) {
+					ids.addAll(refMatches);
+				}
+			}
+
+			return descriptorsOf(ids);
+		}
+
+		/**
+		 * Returns the descriptors which names can contain the given text. When
+		 * the text is contained in a name, each token of the text is contained
+		 * in a token of that name.
+		 */
+		synchronized List<Descriptor> candidatesOf(String text) {
+			TLongHashSet ids = null;
+			for (var q : tokensOf(text)) {
+				ids = intersect(ids, tokenMatches(q));
+				if (ids.isEmpty())
+					break;
+			}
+			if (ids == null)
+				return new ArrayList<>(descriptors.valueCollection());
+			return descriptorsOf(ids);
+		}
+
+		/**
+		 * Returns the IDs of the descriptors with a token that contains the
+		 * given token.
+		 */
+		private TLongHashSet tokenMatches(String q) {
+			var matches = new TLongHashSet();
+			for (var e : tokens.entrySet()) {
+				if (e.getKey().contains(q)) {
+					matches.addAll(e.getValue());
+				}
+			}
+			return matches;
+		}
+
+		private List<Descriptor> descriptorsOf(TLongHashSet ids) {
+			var list = new ArrayList<Descriptor>(ids.size());
+			var it = ids.iterator();
+			while (it.hasNext()) {
+				var d = descriptors.get(it.next());
+				if (d != null) {
+					list.add(d);
+				}
+			}
+			return list;
+		}
+
+		private static TLongHashSet intersect(TLongHashSet ids, TLongHashSet other) {
+			if (ids == null)
+				return new TLongHashSet(other);
+			ids.retainAll(other);
+			return ids;
+		}
+
+		private static void put(Map<String, TLongHashSet> map, String key, long id) {
+			map.computeIfAbsent(key, k -> new TLongHashSet()).add(id);
+		}
+
+		private static void drop(Map<String, TLongHashSet> map, String key, long id) {
+			var ids = map.get(key);
+			if (ids == null)
+				return;
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+
+	private record Keys(List<String> tokens, List<String> tags, String refId) {
+	}
+
+	/** The number of models of a type and their latest change date. */
+	private record State(long count, long lastChange) {
+	}
+}
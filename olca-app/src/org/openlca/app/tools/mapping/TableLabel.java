@@ -164,7 +164,7 @@ class TableLabel extends LabelProvider
 			return null;
 		if (ref.flow.category == null)
 			return null;
-		Category category = Cache.getEntityCache().get(
+		Category category = Cache.get(
 			Category.class, ref.flow.category);
 		if (category == null)
 			return null;
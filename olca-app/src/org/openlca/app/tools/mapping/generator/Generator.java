@@ -3,7 +3,10 @@ package org.openlca.app.tools.mapping.generator;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.openlca.app.preferences.Preferences;
 import org.openlca.app.tools.mapping.model.FlowProvider;
 import org.openlca.core.io.maps.FlowMap;
 import org.openlca.core.io.maps.FlowMapEntry;
@@ -44,13 +47,26 @@ public class Generator implements Runnable {
 			}
 
 			log.info("match unmapped flows");
-			var matcher = new Matcher(targetSystem);
+			var matcher = new Matcher(targetSystem).withRecallThreshold(
+					Preferences.getInt(Preferences.MAPPING_RECALL_THRESHOLD, 50)
+							/ 100.0);
+			var sources = new ArrayList<FlowRef>(sourceFlows.size());
 			for (var sourceFlow : sourceFlows) {
 				var source = sourceFlow.copy();
 				source.status = MappingStatus.ok();
-				FlowRef matched = matcher.find(source);
+				sources.add(source);
+			}
+
+			// the flow matching is done in parallel; the provider matching
+			// modifies the target flows and is done in the order of the
+			// source flows afterwards
+			var matches = matchAll(matcher, sources);
+			for (int i = 0; i < sources.size(); i++) {
+				var source = sources.get(i);
+				FlowRef matched = matches.get(i);
 				FlowRef target = null;
 				if (matched != null) {
+					matcher.checkAddProvider(source, matched);
 					target = matched.copy();
 					target.status = getStatus(source, target);
 				}
@@ -62,6 +78,25 @@ public class Generator implements Runnable {
 		}
 	}
 
+	private List<FlowRef> matchAll(Matcher matcher, List<FlowRef> sources)
+		throws Exception {
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		var pool = Executors.newFixedThreadPool(threads);
+		try {
+			var futures = new ArrayList<Future<FlowRef>>(sources.size());
+			for (var source : sources) {
+				futures.add(pool.submit(() -> matcher.match(source)));
+			}
+			var matches = new ArrayList<FlowRef>(sources.size());
+			for (var future : futures) {
+				matches.add(future.get());
+			}
+			return matches;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	private MappingStatus getStatus(FlowRef source, FlowRef target) {
 		if (differentUnits(source, target))
 			return MappingStatus.warn("different units");
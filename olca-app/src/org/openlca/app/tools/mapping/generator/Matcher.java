@@ -1,6 +1,13 @@
 package org.openlca.app.tools.mapping.generator;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.openlca.app.tools.mapping.model.DBProvider;
@@ -18,19 +25,51 @@ import org.openlca.text.PhraseParser;
 import org.openlca.text.PhraseSimilarity;
 import org.openlca.text.WordBuffer;
 import org.openlca.util.Categories;
+import org.slf4j.LoggerFactory;
 
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntIntHashMap;
+
+/**
+ * Finds the best matching target flow for a source flow. The candidates are
+ * first selected via the stemmed words of the flow names that are not stop
+ * words (blocking): a target flow is scored when it shares at least the
+ * fraction {@code recallThreshold} of the word stems of the shorter of the two
+ * names with the source flow. Thus, every target flow above this threshold is
+ * scored, in the same order as in the exhaustive search, and when the best
+ * target flow of the exhaustive search is above this threshold, the result is
+ * exactly the same. Only a best match that shares fewer word stems with the
+ * source flow (e.g. a synonym) can be missed. If a source flow has no word
+ * stems or no candidates, all target flows are scored. A threshold of 0
+ * disables the blocking.
+ * <p>
+ * The matching of a source flow ({@link #match(FlowRef)}) can be called from
+ * multiple threads; the phrase buffers are allocated per thread. Adding the
+ * provider information ({@link #checkAddProvider(FlowRef, FlowRef)}) modifies
+ * the target flows and must be done sequentially.
+ */
 class Matcher {
 
 	private final IDatabase db;
 	private final Map<String, FlowRef> targetFlows;
 
-	final CompartmentStemmer compartmentStemmer;
+	/**
+	 * The target flows in the iteration order of {@code targetFlows}. The
+	 * candidates are scored in this order so that ties are resolved in the
+	 * same way as in the exhaustive search.
+	 */
+	private final FlowRef[] targets;
+
+	/** Maps the stemmed words to the (sorted) positions in {@code targets}. */
+	private final Map<String, TIntArrayList> blocks = new HashMap<>();
+
+	/** The number of distinct stemmed words of the targets by position. */
+	private int[] wordCounts;
 
-	private final PhraseSimilarity similarity;
-	private final PhraseParser parser;
-	private final WordBuffer phrase1;
-	private final WordBuffer phrase2;
+	private final Set<String> stopwords;
+	private double recallThreshold = 0;
 
+	private final ThreadLocal<Words> words = ThreadLocal.withInitial(Words::new);
 
 	// helper structures for collecting provider information
 	private Categories.PathBuilder categories;
@@ -43,23 +82,57 @@ class Matcher {
 		this.targetFlows = targetSystem.getFlowRefs().stream()
 			.filter(f -> f.flow != null && f.flow.refId != null)
 			.collect(Collectors.toMap(f -> f.flow.refId, f -> f));
+		this.targets = targetFlows.values().toArray(new FlowRef[0]);
+		this.stopwords = readStopwords();
+	}
 
-		this.compartmentStemmer = new CompartmentStemmer();
-		this.similarity = new PhraseSimilarity();
-		this.parser = new PhraseParser();
-		this.phrase1 = new WordBuffer();
-		this.phrase2 = new WordBuffer();
+	/**
+	 * Sets the fraction of the word stems of the shorter name that a target
+	 * flow needs to share with a source flow in order to be scored; see the
+	 * class description. The value is clamped to the range 0 to 1, and a
+	 * value of 0 disables the blocking so that all target flows are scored.
+	 */
+	Matcher withRecallThreshold(double threshold) {
+		this.recallThreshold = Math.max(0, Math.min(1, threshold));
+		if (recallThreshold > 0 && wordCounts == null) {
+			wordCounts = new int[targets.length];
+			for (int i = 0; i < targets.length; i++) {
+				var words = stemmedWordsOf(targets[i].flow.name);
+				wordCounts[i] = words.size();
+				for (var word : words) {
+					blocks.computeIfAbsent(word, w -> new TIntArrayList()).add(i);
+				}
+			}
+		}
+		return this;
 	}
 
 	double similarityOf(String s1, String s2) {
 		if (s1 == null || s2 == null)
 			return 0;
-		parser.parseInto(phrase1, s1);
-		parser.parseInto(phrase2, s2);
-		return similarity.get(phrase1, phrase2);
+		var w = words.get();
+		w.parser.parseInto(w.phrase1, s1);
+		w.parser.parseInto(w.phrase2, s2);
+		return w.similarity.get(w.phrase1, w.phrase2);
+	}
+
+	String[] stemCompartments(String path) {
+		return words.get().compartmentStemmer.stem(path);
 	}
 
 	FlowRef find(FlowRef s) {
+		var t = match(s);
+		if (t == null)
+			return null;
+		checkAddProvider(s, t);
+		return t;
+	}
+
+	/**
+	 * Returns the best matching target flow for the given source flow without
+	 * adding provider information. This method is thread-safe.
+	 */
+	FlowRef match(FlowRef s) {
 		if (s == null
 			|| s.flow == null
 			|| s.flow.refId == null)
@@ -67,28 +140,103 @@ class Matcher {
 
 		// test whether there is a direct match based on the reference IDs
 		var t = targetFlows.get(s.flow.refId);
-		if (t != null) {
-			checkAddProvider(s, t);
+		if (t != null)
 			return t;
-		}
 
 		var score = Score.noMatch();
-		for (var candidate : targetFlows.values()) {
+		var candidates = candidatesOf(s);
+		int n = candidates != null ? candidates.length : targets.length;
+		for (int i = 0; i < n; i++) {
+			var candidate = candidates != null
+				? targets[candidates[i]]
+				: targets[i];
 			var nextScore = Score.compute(this, s, candidate);
 			if (nextScore.betterThan(score)) {
 				score = nextScore;
 				t = candidate;
 			}
 		}
+		return t;
+	}
 
-		if (t == null)
+	/**
+	 * Returns the sorted positions of the target flows that should be scored
+	 * for the given source flow, or {@code null} if all target flows should be
+	 * scored.
+	 */
+	private int[] candidatesOf(FlowRef s) {
+		if (recallThreshold == 0)
+			return null;
+		var sourceWords = stemmedWordsOf(s.flow.name);
+		if (sourceWords.isEmpty())
 			return null;
+		int sourceCount = sourceWords.size();
+		var counts = new TIntIntHashMap();
+		for (var word : sourceWords) {
+			var block = blocks.get(word);
+			if (block == null)
+				continue;
+			block.forEach(i -> {
+				counts.adjustOrPutValue(i, 1, 1);
+				return true;
+			});
+		}
+		var candidates = new TIntArrayList(counts.size());
+		counts.forEachEntry((i, count) -> {
+			int shorter = Math.min(sourceCount, wordCounts[i]);
+			if (count >= recallThreshold * shorter) {
+				candidates.add(i);
+			}
+			return true;
+		});
+		if (candidates.isEmpty())
+			return null;
+		var positions = candidates.toArray();
+		Arrays.sort(positions);
+		return positions;
+	}
 
-		checkAddProvider(s, t);
-		return t;
+	/**
+	 * Returns the distinct stemmed words of the given name that are not stop
+	 * words.
+	 */
+	private Set<String> stemmedWordsOf(String name) {
+		var set = new HashSet<String>();
+		if (name == null)
+			return set;
+		for (var word : name.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+			if (word.isEmpty() || stopwords.contains(word))
+				continue;
+			var stem = Stemmer.stem(word);
+			if (!stem.isEmpty()) {
+				set.add(stem);
+			}
+		}
+		return set;
+	}
+
+	private static Set<String> readStopwords() {
+		var set = new HashSet<String>();
+		var stream = Matcher.class.getResourceAsStream("stopwords.txt");
+		if (stream == null)
+			return set;
+		try (var reader = new BufferedReader(
+			new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				var word = line.strip().toLowerCase();
+				if (word.isEmpty() || word.startsWith("#"))
+					continue;
+				set.add(word);
+			}
+		} catch (Exception e) {
+			LoggerFactory.getLogger(Matcher.class)
+				.error("failed to read stop words", e);
+		}
+		return set;
 	}
 
-	private void checkAddProvider(FlowRef s, FlowRef t) {
+	void checkAddProvider(FlowRef s, FlowRef t) {
 		if (db == null || t == null || t.flow == null)
 			return;
 		if (t.flow.flowType == FlowType.ELEMENTARY_FLOW)
@@ -126,13 +274,14 @@ class Matcher {
 
 		ProcessDescriptor cand = null;
 		double score = 0.0;
-		parser.parseInto(phrase1, s.flow.name);
+		var w = words.get();
+		w.parser.parseInto(w.phrase1, s.flow.name);
 		for (var d : candidates) {
 			// include possible location codes; location codes are
 			// often added to process names
 			var processName = Labels.name(d);
-			parser.parseInto(phrase2, processName);
-			double sim = similarity.get(phrase1, phrase2);
+			w.parser.parseInto(w.phrase2, processName);
+			double sim = w.similarity.get(w.phrase1, w.phrase2);
 			if (cand == null || sim > score) {
 				cand = d;
 				score = sim;
@@ -140,4 +289,15 @@ class Matcher {
 		}
 		return cand;
 	}
+
+	/**
+	 * The text processing tools and buffers of a thread.
+	 */
+	private static class Words {
+		final CompartmentStemmer compartmentStemmer = new CompartmentStemmer();
+		final PhraseSimilarity similarity = new PhraseSimilarity();
+		final PhraseParser parser = new PhraseParser();
+		final WordBuffer phrase1 = new WordBuffer();
+		final WordBuffer phrase2 = new WordBuffer();
+	}
 }
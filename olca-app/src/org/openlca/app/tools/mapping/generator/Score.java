@@ -53,8 +53,8 @@ record Score(
 			|| s.flowCategory == null
 			|| t.flowCategory == null)
 			return 0;
-		var stemmed1 = matcher.compartmentStemmer.stem(s.flowCategory);
-		var stemmed2 = matcher.compartmentStemmer.stem(t.flowCategory);
+		var stemmed1 = matcher.stemCompartments(s.flowCategory);
+		var stemmed2 = matcher.stemCompartments(t.flowCategory);
 		int minLen = Math.min(stemmed1.length, stemmed2.length);
 		if (minLen == 0)
 			return 0;
@@ -97,7 +97,7 @@ public class Labels {
 	public static String refUnit(FlowDescriptor flow) {
 		if (flow == null)
 			return "";
-		FlowProperty refProp = Cache.getEntityCache().get(
+		FlowProperty refProp = Cache.get(
 				FlowProperty.class,
 				flow.refFlowPropertyId);
 		if (refProp == null)
@@ -129,7 +129,7 @@ public class Labels {
 	public static String category(RootDescriptor d) {
 		if (d == null || d.category == null)
 			return "";
-		Category c = Cache.getEntityCache().get(Category.class, d.category);
+		Category c = Cache.get(Category.class, d.category);
 		if (c == null)
 			return "";
 		return CategoryPath.getFull(c);
@@ -356,10 +356,7 @@ public class Labels {
 		static String append(String name, Long locationId) {
 			if (locationId == null)
 				return name;
-			var cache = Cache.getEntityCache();
-			if (cache == null)
-				return name;
-			var location = cache.get(LocationDescriptor.class, locationId);
+			var location = Cache.get(LocationDescriptor.class, locationId);
 			return location != null
 					? append(name, location.code)
 					: name;